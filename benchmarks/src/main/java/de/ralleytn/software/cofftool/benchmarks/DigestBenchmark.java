@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool.benchmarks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.ralleytn.software.cofftool.Digests;
+
+/**
+ * Compares the MD5 hashing of {@linkplain Digests} with the implementation of version 1.1.0,
+ * which created a new {@linkplain MessageDigest} per file and two strings per byte.
+ * Each benchmark hashes the content of every source file of the synthetic project once.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DigestBenchmark {
+
+	/**
+	 * Hashes every source file the way version 1.1.0 did.
+	 * @param state the project
+	 * @param blackhole consumes the hashes
+	 * @throws NoSuchAlgorithmException never
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void legacy(ProjectState state, Blackhole blackhole) throws NoSuchAlgorithmException {
+		
+		for(byte[] content : state.contents) {
+			
+			StringBuilder hexBuilder = new StringBuilder();
+			
+			for(byte b : MessageDigest.getInstance("MD5").digest(content)) {
+				
+				hexBuilder.append(Integer.toString((b & 0xFF) + 0x100, 16).substring(1));
+			}
+			
+			blackhole.consume(hexBuilder.toString());
+		}
+	}
+	
+	/**
+	 * Hashes every source file with {@linkplain Digests#md5(byte[])}.
+	 * @param state the project
+	 * @param blackhole consumes the hashes
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void digests(ProjectState state, Blackhole blackhole) {
+		
+		for(byte[] content : state.contents) {
+			
+			blackhole.consume(Digests.md5(content));
+		}
+	}
+	
+	/**
+	 * Only converts the hashes to hexadecimal strings the way version 1.1.0 did.
+	 * @param state the project
+	 * @param blackhole consumes the strings
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void legacyHex(ProjectState state, Blackhole blackhole) {
+		
+		for(byte[] hash : state.hashes) {
+			
+			StringBuilder hexBuilder = new StringBuilder();
+			
+			for(byte b : hash) {
+				
+				hexBuilder.append(Integer.toString((b & 0xFF) + 0x100, 16).substring(1));
+			}
+			
+			blackhole.consume(hexBuilder.toString());
+		}
+	}
+	
+	/**
+	 * Only converts the hashes to hexadecimal strings with {@linkplain Digests#toHex(byte[])}.
+	 * @param state the project
+	 * @param blackhole consumes the strings
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void hex(ProjectState state, Blackhole blackhole) {
+		
+		for(byte[] hash : state.hashes) {
+			
+			blackhole.consume(Digests.toHex(hash));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ralleytn.software.cofftool.CoverageReportGenerator;
+import de.ralleytn.software.cofftool.FileTreeWalker;
+import de.ralleytn.software.cofftool.Metrics;
+import de.ralleytn.software.cofftool.ReportWriter;
+
+/**
+ * Measures the whole pipeline from walking the source tree to the written {@code coveralls.json} without a cache.
+ * The console output of the tool is discarded while the benchmark runs.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+	/**
+	 * The number of threads that process the source files.
+	 * @since 1.2.0
+	 */
+	@Param({"1", "4"})
+	public int threads;
+	
+	private PrintStream console;
+	private File output;
+	
+	/**
+	 * Discards the console output and creates the output file.
+	 * @throws IOException if the output file could not be created
+	 * @since 1.2.0
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		
+		this.console = System.out;
+		this.output = File.createTempFile("coveralls", ".json");
+		System.setOut(new PrintStream(new OutputStream() {
+			
+			@Override
+			public void write(int b) {}
+			
+			@Override
+			public void write(byte[] buffer, int offset, int length) {}
+		}));
+	}
+	
+	/**
+	 * Restores the console output and deletes the output file.
+	 * @since 1.2.0
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		
+		System.setOut(this.console);
+		this.output.delete();
+	}
+	
+	/**
+	 * Creates the coverage report of the whole project.
+	 * @param state the project
+	 * @throws IOException if a file could not be read or written
+	 * @throws XMLStreamException if the report is invalid
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void createCoverageReport(ProjectState state) throws IOException, XMLStreamException {
+		
+		FileTreeWalker walker = new FileTreeWalker(Collections.emptyList(), Collections.emptyList());
+		
+		try(ReportWriter writer = new ReportWriter(this.output)) {
+			
+			new CoverageReportGenerator(this.threads, null, walker, new Metrics()).createCoverageReportData(state.sourceLocation.getPath(), state.report, writer);
+			writer.finish(0);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.ralleytn.software.cofftool.CoverageIndex;
+import de.ralleytn.software.cofftool.Digests;
+import de.ralleytn.software.cofftool.FileTreeWalker;
+import de.ralleytn.software.cofftool.ReportReader;
+import de.ralleytn.software.cofftool.SourceFile;
+import de.ralleytn.software.cofftool.SourceFileCoverage;
+import de.ralleytn.software.cofftool.SourceFileReport;
+import de.ralleytn.software.cofftool.SourceScanner;
+import de.ralleytn.software.cofftool.Util;
+
+/**
+ * Holds a synthetic project and the intermediate results of every stage, so each stage can be measured on its own.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+public class ProjectState {
+
+	/**
+	 * The number of source files in the project.
+	 * @since 1.2.0
+	 */
+	@Param({"1000", "10000", "100000"})
+	public int files;
+	
+	/**
+	 * The location of the source files on default package level.
+	 * @since 1.2.0
+	 */
+	public File sourceLocation;
+	
+	/**
+	 * The JaCoCo report of the project.
+	 * @since 1.2.0
+	 */
+	public File report;
+	
+	/**
+	 * The collected source files.
+	 * @since 1.2.0
+	 */
+	public List<SourceFile> sourceFiles;
+	
+	/**
+	 * The paths of the source files relative to the source location.
+	 * @since 1.2.0
+	 */
+	public List<String> names;
+	
+	/**
+	 * The index of the coverage in the report.
+	 * @since 1.2.0
+	 */
+	public CoverageIndex coverages;
+	
+	/**
+	 * The content of every source file.
+	 * @since 1.2.0
+	 */
+	public List<byte[]> contents;
+	
+	/**
+	 * The raw MD5 hash of every source file.
+	 * @since 1.2.0
+	 */
+	public List<byte[]> hashes;
+	
+	/**
+	 * The finished reports of the source files.
+	 * @since 1.2.0
+	 */
+	public List<SourceFileReport> reports;
+	
+	/**
+	 * Generates the project (if needed) and runs every stage once.
+	 * @throws IOException if the project could not be generated or read
+	 * @throws XMLStreamException if the report is invalid
+	 * @since 1.2.0
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, XMLStreamException {
+		
+		Path project = SyntheticProject.get(this.files);
+		this.sourceLocation = project.resolve("src").toFile();
+		this.report = project.resolve("report.xml").toFile();
+		this.sourceFiles = new FileTreeWalker(Collections.emptyList(), Collections.emptyList()).walk(this.sourceLocation.toPath(), 1);
+		this.coverages = new CoverageIndex();
+		new ReportReader().read(this.report, this.coverages);
+		this.names = new ArrayList<>();
+		this.contents = new ArrayList<>();
+		this.hashes = new ArrayList<>();
+		this.reports = new ArrayList<>();
+		
+		SourceScanner scanner = new SourceScanner();
+		
+		for(SourceFile sourceFile : this.sourceFiles) {
+			
+			String name = Util.getFullName(this.sourceLocation.getPath(), sourceFile.getFile());
+			SourceFileCoverage coverage = this.coverages.get(name);
+			scanner.scan(sourceFile.getFile());
+			this.names.add(name);
+			byte[] content = Files.readAllBytes(sourceFile.getFile().toPath());
+			this.contents.add(content);
+			this.hashes.add(Digests.md5().digest(content));
+			this.reports.add(new SourceFileReport(name, scanner.getMD5(), scanner.getLineCount(), coverage.getLineNumbers(), coverage.getHits(), coverage.getCoveredLineCount(), coverage.getMissedLineCount()));
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.ralleytn.software.cofftool.CoverageIndex;
+import de.ralleytn.software.cofftool.Digests;
+import de.ralleytn.software.cofftool.FileTreeWalker;
+import de.ralleytn.software.cofftool.ReportReader;
+import de.ralleytn.software.cofftool.ReportWriter;
+import de.ralleytn.software.cofftool.SourceFile;
+import de.ralleytn.software.cofftool.SourceFileReport;
+import de.ralleytn.software.cofftool.SourceScanner;
+
+/**
+ * Measures every stage of the pipeline on its own. Each benchmark processes the whole synthetic project once.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StageBenchmark {
+
+	/**
+	 * Walks the source tree.
+	 * @param state the project
+	 * @return the collected source files
+	 * @throws IOException if the tree could not be walked
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public List<SourceFile> collect(ProjectState state) throws IOException {
+		
+		return new FileTreeWalker(Collections.emptyList(), Collections.emptyList()).walk(state.sourceLocation.toPath(), 1);
+	}
+	
+	/**
+	 * Parses the report and builds the coverage index.
+	 * @param state the project
+	 * @return the coverage index
+	 * @throws IOException if the report could not be read
+	 * @throws XMLStreamException if the report is invalid
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public CoverageIndex parse(ProjectState state) throws IOException, XMLStreamException {
+		
+		CoverageIndex coverages = new CoverageIndex();
+		new ReportReader().read(state.report, coverages);
+		return coverages;
+	}
+	
+	/**
+	 * Looks up the coverage of every source file.
+	 * @param state the project
+	 * @param blackhole consumes the found coverage
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void match(ProjectState state, Blackhole blackhole) {
+		
+		for(String name : state.names) {
+			
+			blackhole.consume(state.coverages.get(name));
+		}
+	}
+	
+	/**
+	 * Reads every source file once to count its lines and compute its MD5 hash.
+	 * @param state the project
+	 * @param blackhole consumes the hashes
+	 * @throws IOException if a source file could not be read
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void scan(ProjectState state, Blackhole blackhole) throws IOException {
+		
+		SourceScanner scanner = new SourceScanner();
+		
+		for(SourceFile sourceFile : state.sourceFiles) {
+			
+			scanner.scan(sourceFile.getFile());
+			blackhole.consume(scanner.getLineCount());
+			blackhole.consume(scanner.getMD5());
+		}
+	}
+	
+	/**
+	 * Computes the MD5 hash of every source file from memory with {@linkplain Digests#md5(byte[])}.
+	 * @param state the project
+	 * @param blackhole consumes the hashes
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void digest(ProjectState state, Blackhole blackhole) {
+		
+		for(byte[] content : state.contents) {
+			
+			blackhole.consume(Digests.md5(content));
+		}
+	}
+	
+	/**
+	 * Serializes the reports of all source files without writing them to disk.
+	 * @param state the project
+	 * @param blackhole consumes the written characters
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	@Benchmark
+	public void serialize(ProjectState state, Blackhole blackhole) throws IOException {
+		
+		try(ReportWriter writer = new ReportWriter(new BlackholeWriter(blackhole))) {
+			
+			for(SourceFileReport report : state.reports) {
+				
+				writer.write(report);
+			}
+			
+			writer.finish(0);
+		}
+	}
+	
+	/**
+	 * Hands everything that is written to a {@linkplain Blackhole}.
+	 * @since 1.2.0
+	 */
+	private static final class BlackholeWriter extends Writer {
+
+		private final Blackhole blackhole;
+		
+		private BlackholeWriter(Blackhole blackhole) {
+			
+			this.blackhole = blackhole;
+		}
+		
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			
+			this.blackhole.consume(buffer);
+		}
+		
+		@Override
+		public void write(int character) {
+			
+			this.blackhole.consume(character);
+		}
+		
+		@Override
+		public void write(String string, int offset, int length) {
+			
+			this.blackhole.consume(string);
+		}
+		
+		@Override
+		public void flush() {}
+		
+		@Override
+		public void close() {}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates a source tree and a matching JaCoCo report with a given number of source files.
+ * A generated project is kept in the temporary directory and reused by later benchmark runs.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class SyntheticProject {
+
+	private static final int FILES_PER_PACKAGE = 100;
+	
+	private SyntheticProject() {}
+	
+	/**
+	 * Gets a generated project and generates it if it does not exist yet.
+	 * The source files are in the directory {@code src} and the report is the file {@code report.xml}.
+	 * @param files the number of source files
+	 * @return the project directory
+	 * @throws IOException if the project could not be generated
+	 * @since 1.2.0
+	 */
+	public static final Path get(int files) throws IOException {
+		
+		Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "cofftool-benchmarks", Integer.toString(files));
+		Path marker = directory.resolve("complete");
+		
+		if(!Files.exists(marker)) {
+			
+			SyntheticProject.generate(directory, files);
+			Files.createFile(marker);
+		}
+		
+		return directory;
+	}
+	
+	/**
+	 * Generates a project.
+	 * Every source file has between 20 and 300 lines, about a third of them are relevant and about two thirds of the relevant lines are covered.
+	 * @param directory the project directory
+	 * @param files the number of source files
+	 * @throws IOException if the project could not be written
+	 * @since 1.2.0
+	 */
+	public static final void generate(Path directory, int files) throws IOException {
+		
+		Random random = new Random(files);
+		Path sources = directory.resolve("src");
+		Files.createDirectories(sources);
+		
+		try(Writer report = Files.newBufferedWriter(directory.resolve("report.xml"), StandardCharsets.UTF_8)) {
+			
+			report.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+			report.write("<!DOCTYPE report PUBLIC \"-//JACOCO//DTD Report 1.1//EN\" \"report.dtd\">");
+			report.write("<report name=\"synthetic\">\n");
+			
+			for(int file = 0; file < files; file++) {
+				
+				String packageName = String.format("de/ralleytn/synthetic/p%05d", file / SyntheticProject.FILES_PER_PACKAGE);
+				String fileName = "Synthetic" + file + ".java";
+				int lines = 20 + random.nextInt(280);
+				
+				if(file % SyntheticProject.FILES_PER_PACKAGE == 0) {
+					
+					if(file > 0) {
+						
+						report.write("</package>\n");
+					}
+					
+					Files.createDirectories(sources.resolve(packageName));
+					report.write("<package name=\"" + packageName + "\">\n");
+				}
+				
+				report.write("<sourcefile name=\"" + fileName + "\">\n");
+				
+				try(BufferedWriter source = Files.newBufferedWriter(sources.resolve(packageName).resolve(fileName), StandardCharsets.UTF_8)) {
+					
+					for(int line = 1; line <= lines; line++) {
+						
+						source.write("\t\tint value" + line + " = " + random.nextInt() + "; // synthetic line\n");
+						
+						if(random.nextInt(3) == 0) {
+							
+							int covered = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(20);
+							report.write("<line nr=\"" + line + "\" mi=\"" + (covered == 0 ? 3 : 0) + "\" ci=\"" + covered + "\" mb=\"0\" cb=\"0\"/>\n");
+						}
+					}
+				}
+				
+				report.write("<counter type=\"LINE\" missed=\"0\" covered=\"0\"/>\n");
+				report.write("</sourcefile>\n");
+			}
+			
+			if(files > 0) {
+				
+				report.write("</package>\n");
+			}
+			
+			report.write("</report>\n");
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits the command line arguments into parameters and options.
+ * An option starts with {@code --} and is followed by its value. An option may be given more than once. Switches are options without a value.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class Arguments {
+
+	private final List<String> parameters = new ArrayList<>();
+	private final Map<String, List<String>> options = new HashMap<>();
+	private final Set<String> switches = new HashSet<>();
+	
+	/**
+	 * @param args the command line arguments
+	 * @param knownSwitches the names of the options that have no value (without the leading {@code --})
+	 * @throws ArgumentException if an option has no value
+	 * @since 1.2.0
+	 */
+	public Arguments(String[] args, String... knownSwitches) throws ArgumentException {
+		
+		List<String> switchNames = Arrays.asList(knownSwitches);
+		
+		for(int index = 0; index < args.length; index++) {
+			
+			String arg = args[index];
+			
+			if(arg.startsWith("--")) {
+				
+				String name = arg.substring(2);
+				
+				if(switchNames.contains(name)) {
+					
+					this.switches.add(name);
+					
+				} else if(index + 1 < args.length) {
+					
+					this.options.computeIfAbsent(name, key -> new ArrayList<>()).add(args[++index]);
+					
+				} else {
+					
+					throw new ArgumentException("Missing value for option " + arg);
+				}
+				
+			} else {
+				
+				this.parameters.add(arg);
+			}
+		}
+	}
+	
+	/**
+	 * @return the arguments that are neither options nor switches
+	 * @since 1.2.0
+	 */
+	public List<String> getParameters() {
+		
+		return this.parameters;
+	}
+	
+	/**
+	 * @param name the option name (without the leading {@code --})
+	 * @param defaultValue the value that is returned if the option was not given
+	 * @return the value of the option; the last one if it was given more than once
+	 * @since 1.2.0
+	 */
+	public String getOption(String name, String defaultValue) {
+		
+		List<String> values = this.options.get(name);
+		return values != null ? values.get(values.size() - 1) : defaultValue;
+	}
+	
+	/**
+	 * @param name the option name (without the leading {@code --})
+	 * @return all values of the option in the order in which they were given; an empty list if the option was not given
+	 * @since 1.2.0
+	 */
+	public List<String> getOptions(String name) {
+		
+		return this.options.getOrDefault(name, Collections.emptyList());
+	}
+	
+	/**
+	 * @param name the option name (without the leading {@code --})
+	 * @param defaultValue the value that is returned if the option was not given
+	 * @return the value of the option as an {@code int}
+	 * @throws ArgumentException if the value is not a number
+	 * @since 1.2.0
+	 */
+	public int getIntOption(String name, int defaultValue) throws ArgumentException {
+		
+		String value = this.getOption(name, null);
+		
+		if(value == null) {
+			
+			return defaultValue;
+		}
+		
+		try {
+			
+			return Integer.parseInt(value);
+			
+		} catch(NumberFormatException exception) {
+			
+			throw new ArgumentException("The value of --" + name + " has to be a number: " + value);
+		}
+	}
+	
+	/**
+	 * @param name the switch name (without the leading {@code --})
+	 * @return {@code true} if the switch was given, else {@code false}
+	 * @since 1.2.0
+	 */
+	public boolean hasSwitch(String name) {
+		
+		return this.switches.contains(name);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One module of a batch run: the source files, the JaCoCo reports that were created for them and the file in which the Coveralls report is written.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class BatchEntry {
+
+	private final String sourceLocation;
+	private final List<File> reportFiles;
+	private final File outputFile;
+	private final String namePrefix;
+	
+	/**
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param reportFiles the JaCoCo XML reports; several reports are merged
+	 * @param outputFile the file in which the Coveralls report is written
+	 * @param namePrefix the path of the source location relative to the repository root, with a trailing {@code /}
+	 * @since 1.2.0
+	 */
+	public BatchEntry(String sourceLocation, List<File> reportFiles, File outputFile, String namePrefix) {
+		
+		this.sourceLocation = sourceLocation;
+		this.reportFiles = reportFiles;
+		this.outputFile = outputFile;
+		this.namePrefix = namePrefix;
+	}
+	
+	/**
+	 * Reads a manifest with one entry per line. The fields of an entry are separated by {@code ;}:
+	 * <pre>source location;report[,report...];output[;name prefix]</pre>
+	 * Several reports of the same module are separated by {@code ,} and merged. Empty lines and lines that start with {@code #} are ignored.
+	 * If the name prefix is missing, {@code src/main/java/} is used.
+	 * @param manifest the manifest file
+	 * @return the entries in the order of the manifest
+	 * @throws IOException if the manifest could not be read or contains an invalid line
+	 * @since 1.2.0
+	 */
+	public static final List<BatchEntry> readManifest(File manifest) throws IOException {
+		
+		List<BatchEntry> entries = new ArrayList<>();
+		
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), StandardCharsets.UTF_8))) {
+			
+			String line = null;
+			int lineNumber = 0;
+			
+			while((line = reader.readLine()) != null) {
+				
+				lineNumber++;
+				line = line.trim();
+				
+				if(!line.isEmpty() && !line.startsWith("#")) {
+					
+					String[] fields = line.split(";", -1);
+					
+					if(fields.length < 3 || fields.length > 4) {
+						
+						throw new IOException(manifest.getName() + ":" + lineNumber + ": Expected 'source location;report;output[;name prefix]'");
+					}
+					
+					String namePrefix = fields.length == 4 ? fields[3].trim() : ReportWriter.DEFAULT_NAME_PREFIX;
+					
+					if(!namePrefix.isEmpty() && !namePrefix.endsWith("/")) {
+						
+						namePrefix += "/";
+					}
+					
+					List<File> reportFiles = new ArrayList<>();
+					
+					for(String reportFile : fields[1].split(",")) {
+						
+						reportFiles.add(new File(reportFile.trim()));
+					}
+					
+					entries.add(new BatchEntry(fields[0].trim(), reportFiles, new File(fields[2].trim()), namePrefix));
+				}
+			}
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * @return the location of the source files on default package level
+	 * @since 1.2.0
+	 */
+	public String getSourceLocation() {
+		
+		return this.sourceLocation;
+	}
+	
+	/**
+	 * @return the JaCoCo XML reports
+	 * @since 1.2.0
+	 */
+	public List<File> getReportFiles() {
+		
+		return this.reportFiles;
+	}
+	
+	/**
+	 * @return the file in which the Coveralls report is written
+	 * @since 1.2.0
+	 */
+	public File getOutputFile() {
+		
+		return this.outputFile;
+	}
+	
+	/**
+	 * @return the path of the source location relative to the repository root, with a trailing {@code /}
+	 * @since 1.2.0
+	 */
+	public String getNamePrefix() {
+		
+		return this.namePrefix;
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Creates the Coveralls reports of several modules in one run.
+ * The modules are processed in parallel and share one thread pool for their source files, the cache directory and the metrics.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class BatchProcessor {
+
+	private final int threads;
+	private final CoverageMerger.Mode mode;
+	private final File cacheDirectory;
+	private final FileTreeWalker walker;
+	private final Metrics metrics;
+	
+	/**
+	 * @param threads the number of threads that process the source files of all modules together
+	 * @param mode how the hits of the same line are combined if a module has several reports
+	 * @param cacheDirectory the directory in which every module keeps its own cache or {@code null} if no cache should be used
+	 * @param walker the walker that searches for the source files
+	 * @param metrics the metrics to which the time, files and bytes of every stage are added
+	 * @since 1.2.0
+	 */
+	public BatchProcessor(int threads, CoverageMerger.Mode mode, File cacheDirectory, FileTreeWalker walker, Metrics metrics) {
+		
+		this.threads = threads;
+		this.mode = mode;
+		this.cacheDirectory = cacheDirectory;
+		this.walker = walker;
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Creates the report of every entry and optionally combines them into one report.
+	 * @param entries the entries of the manifest
+	 * @param serviceJobId the service job id; it is only awaited when the first report is finished
+	 * @param combinedFile the file in which the source files of all reports are written or {@code null} if no combined report should be created
+	 * @throws IOException if a report could not be created
+	 * @since 1.2.0
+	 */
+	public void process(List<BatchEntry> entries, Future<Long> serviceJobId, File combinedFile) throws IOException {
+		
+		Log.info("Process " + entries.size() + " modules...");
+		Log.info("");
+		
+		// THE MODULES ONLY WAIT FOR THEIR SOURCE FILES, SO THEY NEED THEIR OWN THREADS TO NOT BLOCK THE SHARED POOL
+		ExecutorService files = this.threads > 1 ? Executors.newFixedThreadPool(this.threads) : null;
+		
+		// ONE POOL FOR ALL DIRECTORY TREES, OTHERWISE EVERY MODULE THAT IS WALKED AT THE SAME TIME WOULD START ITS OWN THREADS
+		ForkJoinPool walkers = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+		ExecutorService modules = Executors.newFixedThreadPool(Math.max(1, Math.min(this.threads, entries.size())));
+		
+		try {
+			
+			List<Future<Void>> results = new ArrayList<>();
+			
+			for(BatchEntry entry : entries) {
+				
+				results.add(modules.submit(() -> {
+					
+					this.process(entry, files, walkers, serviceJobId);
+					return null;
+				}));
+			}
+			
+			for(Future<Void> result : results) {
+				
+				Util.await(result);
+			}
+			
+		} finally {
+			
+			modules.shutdownNow();
+			
+			if(files != null) {
+				
+				files.shutdownNow();
+			}
+			
+			if(walkers != null) {
+				
+				walkers.shutdownNow();
+			}
+		}
+		
+		if(combinedFile != null) {
+			
+			this.combine(entries, combinedFile, Util.await(serviceJobId));
+		}
+	}
+	
+	/**
+	 * Creates the report of a single entry.
+	 * @param entry the entry
+	 * @param files the shared thread pool for the source files or {@code null} if they should be processed by the current thread
+	 * @param walkers the shared pool that searches for the source files or {@code null} if every module should use a single thread
+	 * @param serviceJobId the service job id
+	 * @throws Exception if the report could not be created
+	 * @since 1.2.0
+	 */
+	private void process(BatchEntry entry, ExecutorService files, ForkJoinPool walkers, Future<Long> serviceJobId) throws Exception {
+		
+		CoverageCache cache = null;
+		
+		if(this.cacheDirectory != null) {
+			
+			// EVERY OUTPUT HAS ITS OWN CACHE FILE, SO THE MODULES DO NOT EVICT THE ENTRIES OF EACH OTHER
+			cache = new CoverageCache(this.cacheDirectory, "sources-" + Util.createMD5(entry.getOutputFile().getAbsolutePath().getBytes(StandardCharsets.UTF_8)));
+		}
+		
+		Log.info("Module " + entry.getSourceLocation() + " -> " + entry.getOutputFile().getPath());
+		
+		try(ReportWriter writer = new ReportWriter(entry.getOutputFile(), entry.getNamePrefix())) {
+			
+			new CoverageReportGenerator(this.threads, files, walkers, cache, this.walker, this.metrics).createCoverageReportData(entry.getSourceLocation(), entry.getReportFiles(), this.mode, writer);
+			writer.finish(Util.await(serviceJobId));
+		}
+		
+		this.metrics.addBytesWritten(Metrics.Stage.JSON_WRITE, entry.getOutputFile().length());
+	}
+	
+	/**
+	 * Copies the source files of all reports into one report. The reports are read as a stream one after another.
+	 * @param entries the entries whose reports were created
+	 * @param combinedFile the file in which the combined report is written
+	 * @param serviceJobId the service job id
+	 * @throws IOException if a report could not be read or the combined report could not be written
+	 * @since 1.2.0
+	 */
+	private void combine(List<BatchEntry> entries, File combinedFile, long serviceJobId) throws IOException {
+		
+		long start = this.metrics.start();
+		int count = 0;
+		
+		// THE NAMES IN THE REPORTS ALREADY CONTAIN THEIR PREFIX
+		try(ReportWriter writer = new ReportWriter(combinedFile, "")) {
+			
+			for(BatchEntry entry : entries) {
+				
+				try(CoverallsReportReader reader = new CoverallsReportReader(entry.getOutputFile())) {
+					
+					SourceFileReport report = null;
+					
+					while((report = reader.next()) != null) {
+						
+						writer.write(report);
+						count++;
+					}
+				}
+				
+				this.metrics.addBytesRead(Metrics.Stage.JSON_WRITE, entry.getOutputFile().length());
+			}
+			
+			writer.finish(serviceJobId);
+		}
+		
+		this.metrics.stop(Metrics.Stage.JSON_WRITE, start);
+		this.metrics.addBytesWritten(Metrics.Stage.JSON_WRITE, combinedFile.length());
+		Log.info("Combined " + count + " source files of " + entries.size() + " modules into " + combinedFile.getName());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+/**
+ * An entry of the {@linkplain CoverageCache}. Contains what was computed for a source file in a previous run.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CachedSourceFile {
+
+	private final long size;
+	private final long lastModified;
+	private final String sourceDigest;
+	private final int lineCount;
+	private final SourceFileCoverage coverage;
+	
+	/**
+	 * @param size the size of the source file in bytes
+	 * @param lastModified the last modification time of the source file in milliseconds
+	 * @param sourceDigest the hexadecimal MD5 hash of the source file
+	 * @param lineCount the number of lines in the source file
+	 * @param coverage the coverage of the source file or {@code null} if the report contained none
+	 * @since 1.2.0
+	 */
+	public CachedSourceFile(long size, long lastModified, String sourceDigest, int lineCount, SourceFileCoverage coverage) {
+		
+		this.size = size;
+		this.lastModified = lastModified;
+		this.sourceDigest = sourceDigest;
+		this.lineCount = lineCount;
+		this.coverage = coverage;
+	}
+	
+	/**
+	 * @return the size of the source file in bytes
+	 * @since 1.2.0
+	 */
+	public long getSize() {
+		
+		return this.size;
+	}
+	
+	/**
+	 * @return the last modification time of the source file in milliseconds
+	 * @since 1.2.0
+	 */
+	public long getLastModified() {
+		
+		return this.lastModified;
+	}
+	
+	/**
+	 * @return the hexadecimal MD5 hash of the source file
+	 * @since 1.2.0
+	 */
+	public String getSourceDigest() {
+		
+		return this.sourceDigest;
+	}
+	
+	/**
+	 * @return the number of lines in the source file
+	 * @since 1.2.0
+	 */
+	public int getLineCount() {
+		
+		return this.lineCount;
+	}
+	
+	/**
+	 * @return the coverage of the source file or {@code null} if the report contained none
+	 * @since 1.2.0
+	 */
+	public SourceFileCoverage getCoverage() {
+		
+		return this.coverage;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The files that changed in a Git repository between two commits, or between a commit and the working tree.
+ * <p>The paths are read from the local repository with {@code git diff --name-only}, no network is needed. Renamed files are reported
+ * with their old and their new path. Without a second commit, files that are not tracked yet are changed files too.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ChangedFiles {
+
+	private final Path root;
+	private final Set<Path> paths;
+	
+	private ChangedFiles(Path root, Set<Path> paths) {
+		
+		this.root = root;
+		this.paths = paths;
+	}
+	
+	/**
+	 * Reads the changed files of the repository in the working directory.
+	 * @param base the commit from which on changes are searched, for example the target branch of a pull request
+	 * @param head the commit up to which changes are searched or {@code null} to search up to the working tree
+	 * @return the changed files
+	 * @throws IOException if Git could not be run or failed
+	 * @since 1.2.0
+	 */
+	public static final ChangedFiles read(String base, String head) throws IOException {
+		
+		return ChangedFiles.read(null, base, head);
+	}
+	
+	/**
+	 * Reads the changed files of the repository that contains the given directory.
+	 * @param directory a directory in the repository or {@code null} for the working directory
+	 * @param base the commit from which on changes are searched, for example the target branch of a pull request
+	 * @param head the commit up to which changes are searched or {@code null} to search up to the working tree
+	 * @return the changed files
+	 * @throws IOException if Git could not be run or failed
+	 * @since 1.2.0
+	 */
+	public static final ChangedFiles read(File directory, String base, String head) throws IOException {
+		
+		Path root = new File(new String(ChangedFiles.git(directory, "rev-parse", "--show-toplevel"), StandardCharsets.UTF_8).trim()).getAbsoluteFile().toPath().normalize();
+		List<String> command = new ArrayList<>(Arrays.asList("diff", "--name-only", "--no-renames", "-z", base));
+		
+		if(head != null) {
+			
+			command.add(head);
+		}
+		
+		Set<Path> paths = new LinkedHashSet<>();
+		ChangedFiles.addPaths(root, ChangedFiles.git(directory, command.toArray(new String[command.size()])), paths);
+		
+		if(head == null) {
+			
+			ChangedFiles.addPaths(root, ChangedFiles.git(directory, "ls-files", "--others", "--exclude-standard", "-z", "--full-name", root.toString()), paths);
+		}
+		
+		Log.info(paths.size() + " files changed since " + base + (head != null ? " up to " + head : ""));
+		return new ChangedFiles(root, paths);
+	}
+	
+	/**
+	 * @return the root directory of the repository
+	 * @since 1.2.0
+	 */
+	public Path getRoot() {
+		
+		return this.root;
+	}
+	
+	/**
+	 * @return the absolute paths of the changed files, including deleted files
+	 * @since 1.2.0
+	 */
+	public Set<Path> getPaths() {
+		
+		return Collections.unmodifiableSet(this.paths);
+	}
+	
+	/**
+	 * @param file a file
+	 * @return {@code true} if the file changed, else {@code false}
+	 * @since 1.2.0
+	 */
+	public boolean contains(Path file) {
+		
+		return this.paths.contains(file.toAbsolutePath().normalize());
+	}
+	
+	/**
+	 * Adds the paths of a {@code -z} output, in which every path is terminated by a zero byte.
+	 * @param root the root directory of the repository
+	 * @param output the output of Git
+	 * @param paths the set to which the absolute paths are added
+	 * @since 1.2.0
+	 */
+	private static final void addPaths(Path root, byte[] output, Set<Path> paths) {
+		
+		int start = 0;
+		
+		for(int index = 0; index < output.length; index++) {
+			
+			if(output[index] == 0) {
+				
+				if(index > start) {
+					
+					paths.add(root.resolve(new String(output, start, index - start, StandardCharsets.UTF_8)).normalize());
+				}
+				
+				start = index + 1;
+			}
+		}
+	}
+	
+	/**
+	 * Runs a Git command. The error output of Git is passed through.
+	 * @param directory the directory in which Git is run or {@code null} for the working directory
+	 * @param arguments the arguments of the command
+	 * @return the output of the command
+	 * @throws IOException if Git could not be run or exited with an error
+	 * @since 1.2.0
+	 */
+	private static final byte[] git(File directory, String... arguments) throws IOException {
+		
+		List<String> command = new ArrayList<>();
+		command.add("git");
+		command.addAll(Arrays.asList(arguments));
+		Process process = new ProcessBuilder(command).directory(directory).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		
+		try(InputStream in = process.getInputStream()) {
+			
+			byte[] output = in.readAllBytes();
+			int exitCode = process.waitFor();
+			
+			if(exitCode != 0) {
+				
+				throw new IOException("git " + arguments[0] + " exited with " + exitCode);
+			}
+			
+			return output;
+			
+		} catch(InterruptedException exception) {
+			
+			process.destroy();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for git");
+		}
+	}
+}
@@ -23,44 +23,169 @@
  */
 package de.ralleytn.software.cofftool;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
 import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
 import java.net.URL;
+import java.net.UnknownHostException;
 
 /**
  * Represents an abstract client for an API.
+ * The connections are kept alive and reused by the JDK as long as every response is read completely, which {@linkplain #readResponse(HttpURLConnection)} does.
+ * Idempotent requests that fail with an I/O error, {@code 429} or a {@code 5xx} status are repeated with an exponentially growing delay.
+ * Other requests are only repeated if they provably did not reach the server.
  * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
  * @version 1.2.0
  * @since 1.2.0
  */
 public abstract class Client {
 
+	private static final int BUFFER_SIZE = 8192;
+	private static final long MAX_BACKOFF = 30000;
+	
+	private int connectTimeout = 10000;
+	private int readTimeout = 60000;
+	private int maxRetries = 3;
+	private long initialBackoff = 1000;
+	
+	/**
+	 * Writes the body of a request.
+	 * @since 1.2.0
+	 */
+	@FunctionalInterface
+	protected interface RequestBody {
+		
+		/**
+		 * Writes the body on the connection. Is called again for every retry with a new connection.
+		 * @param connection the connection
+		 * @throws IOException if something went wrong while writing
+		 * @since 1.2.0
+		 */
+		public void write(HttpURLConnection connection) throws IOException;
+	}
+	
+	/**
+	 * @param connectTimeout the time in milliseconds after which the attempt to connect is aborted
+	 * @param readTimeout the time in milliseconds after which waiting for data of the response is aborted
+	 * @since 1.2.0
+	 */
+	public void setTimeouts(int connectTimeout, int readTimeout) {
+		
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+	
 	/**
-	 * Reads the response of a HTTP/1.1 request.
+	 * @param maxRetries the number of times a failed request is repeated; {@code 0} disables retries
+	 * @param initialBackoff the delay in milliseconds before the first retry; it is doubled for every further retry
+	 * @since 1.2.0
+	 */
+	public void setRetries(int maxRetries, long initialBackoff) {
+		
+		this.maxRetries = maxRetries;
+		this.initialBackoff = initialBackoff;
+	}
+	
+	/**
+	 * Reads the complete body of a response as raw bytes and closes the stream, so the connection can be reused.
 	 * @param connection the connection that performed a request
-	 * @return the response as a string
+	 * @return the body of the response
 	 * @throws IOException if the response could not be read
 	 * @since 1.0.0
 	 */
-	protected String readResponse(HttpURLConnection connection) throws IOException {
+	protected byte[] readResponse(HttpURLConnection connection) throws IOException {
 		
-		int status = connection.getResponseCode();
-		System.out.println("[INFO] " + status + " " + connection.getResponseMessage());
-		StringBuilder builder = new StringBuilder();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
 		
-		try(BufferedReader reader = new BufferedReader(new InputStreamReader(status >= 400 ? connection.getErrorStream() : connection.getInputStream()))) {
-			
-			String line = null;
+		try(InputStream in = this.getResponseStream(connection)) {
 			
-			while((line = reader.readLine()) != null) {
+			if(in != null) {
 				
-				builder.append(line);
+				int read = 0;
+				byte[] buffer = new byte[Client.BUFFER_SIZE];
+				
+				while((read = in.read(buffer)) != -1) {
+					
+					body.write(buffer, 0, read);
+				}
 			}
 		}
 		
-		return builder.toString();
+		return body.toByteArray();
+	}
+	
+	/**
+	 * Opens the body of a response to read it as a stream. The stream has to be closed.
+	 * @param connection the connection that performed a request
+	 * @return the body of the response; may be {@code null} if an error response has no body
+	 * @throws IOException if the response could not be read
+	 * @since 1.2.0
+	 */
+	protected InputStream getResponseStream(HttpURLConnection connection) throws IOException {
+		
+		return connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+	}
+	
+	/**
+	 * Performs a request and repeats it if it failed.
+	 * An idempotent request is repeated after an I/O error, {@code 429} or a {@code 5xx} status.
+	 * Any other request is only repeated if the connection could not be established or the server answered with {@code 429} or {@code 503},
+	 * because in every other case the server may already have processed the body.
+	 * A {@code Retry-After} header is respected if it asks for a longer delay, but never beyond the maximum backoff.
+	 * @param url the target URL
+	 * @param method the request method
+	 * @param body writes the body of the request or {@code null} if the request has no body
+	 * @param idempotent {@code true} if performing the request more than once has the same effect as performing it once
+	 * @return the connection of the last attempt; the response code was already received
+	 * @throws IOException if the last attempt failed with an I/O error
+	 * @since 1.2.0
+	 */
+	protected HttpURLConnection request(String url, String method, RequestBody body, boolean idempotent) throws IOException {
+		
+		long backoff = this.initialBackoff;
+		
+		for(int attempt = 0;; attempt++) {
+			
+			HttpURLConnection connection = this.createConnection(url, method);
+			int status = -1;
+			
+			try {
+				
+				if(body != null) {
+					
+					body.write(connection);
+				}
+				
+				status = connection.getResponseCode();
+				Log.info(status + " " + connection.getResponseMessage());
+				
+				if(!Client.isRetryable(status, idempotent) || attempt >= this.maxRetries) {
+					
+					return connection;
+				}
+				
+				// THE BODY OF THE FAILED RESPONSE HAS TO BE READ, OTHERWISE THE CONNECTION CANNOT BE REUSED
+				this.readResponse(connection);
+				
+			} catch(IOException exception) {
+				
+				if(!(idempotent || Client.isConnectFailure(exception)) || attempt >= this.maxRetries) {
+					
+					throw exception;
+				}
+				
+				Log.warning(exception.getClass().getSimpleName() + ": " + exception.getMessage());
+			}
+			
+			long delay = Math.max(backoff, Client.getRetryAfter(connection, status));
+			Log.warning("Retry " + (attempt + 1) + "/" + this.maxRetries + " in " + delay + " ms");
+			Client.sleep(delay);
+			backoff = Math.min(backoff * 2, Client.MAX_BACKOFF);
+		}
 	}
 	
 	/**
@@ -75,8 +200,8 @@ public abstract class Client {
 		
 		HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
 		connection.setRequestMethod(method);
-		connection.setReadTimeout(60000);
-		connection.setConnectTimeout(10000);
+		connection.setReadTimeout(this.readTimeout);
+		connection.setConnectTimeout(this.connectTimeout);
 		connection.setAllowUserInteraction(false);
 		connection.setDefaultUseCaches(false);
 		connection.setDoInput(true);
@@ -86,4 +211,49 @@ public abstract class Client {
 		
 		return connection;
 	}
+	
+	private static final boolean isRetryable(int status, boolean idempotent) {
+		
+		// 429 AND 503 MEAN THAT THE SERVER REFUSED THE REQUEST WITHOUT PROCESSING IT
+		return status == 429 || status == 503 || (idempotent && status >= 500);
+	}
+	
+	private static final boolean isConnectFailure(IOException exception) {
+		
+		// NOTHING WAS SENT IF THE HOST COULD NOT BE RESOLVED OR REACHED
+		return exception instanceof ConnectException || exception instanceof NoRouteToHostException || exception instanceof UnknownHostException;
+	}
+	
+	private static final long getRetryAfter(HttpURLConnection connection, int status) {
+		
+		String retryAfter = status != -1 ? connection.getHeaderField("Retry-After") : null;
+		
+		if(retryAfter != null) {
+			
+			try {
+				
+				// A SERVER MUST NOT BE ABLE TO STALL THE TOOL FOR HOURS
+				return Math.min(Long.parseLong(retryAfter.trim()) * 1000, Client.MAX_BACKOFF);
+				
+			} catch(NumberFormatException exception) {
+				
+				// THE HEADER CONTAINS A DATE, IN THAT CASE THE NORMAL BACKOFF IS USED
+			}
+		}
+		
+		return 0;
+	}
+	
+	private static final void sleep(long millis) throws IOException {
+		
+		try {
+			
+			Thread.sleep(millis);
+			
+		} catch(InterruptedException exception) {
+			
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a retry");
+		}
+	}
 }
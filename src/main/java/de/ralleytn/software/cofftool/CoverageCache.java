@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers the line count, MD5 hash and coverage of every source file between two runs.
+ * <p>An entry is keyed by the absolute path of the source file and is only used while the size and the modification time of the file are unchanged.
+ * The coverage of an entry is only used while the size and modification time of the report and the source location are unchanged.
+ * Entries of source files that were not part of a run are evicted when the cache is saved.
+ * A cache file that was written by another version of the tool or that can not be read is ignored.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageCache {
+
+	private static final int MAGIC = 0x436F6666;
+	private static final int VERSION = 2;
+	
+	private final File file;
+	private final Map<String, CachedSourceFile> previous = new HashMap<>();
+	private final Map<String, CachedSourceFile> current = new ConcurrentHashMap<>();
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
+	private String reportKey;
+	private boolean reportUnchanged;
+	
+	/**
+	 * @param directory the directory in which the cache is stored
+	 * @since 1.2.0
+	 */
+	public CoverageCache(File directory) {
+		
+		this(directory, "sources");
+	}
+	
+	/**
+	 * Several caches can share a directory as long as they have different names.
+	 * @param directory the directory in which the cache is stored
+	 * @param name the name of the cache file without extension
+	 * @since 1.2.0
+	 */
+	public CoverageCache(File directory, String name) {
+		
+		this.file = new File(directory, name + ".bin");
+	}
+	
+	/**
+	 * Loads the entries of the previous run.
+	 * @param reports the reports that are used in this run
+	 * @param mode how the reports are merged
+	 * @param sourceLocation the location of the source files on default package level
+	 * @since 1.2.0
+	 */
+	public void load(List<File> reports, CoverageMerger.Mode mode, String sourceLocation) {
+		
+		StringBuilder reportKey = new StringBuilder();
+		
+		for(File report : reports) {
+			
+			reportKey.append(report.getAbsolutePath()).append('|').append(report.length()).append('|').append(report.lastModified()).append('|');
+		}
+		
+		this.reportKey = reportKey.append(mode).append('|').append(new File(sourceLocation).getAbsolutePath()).toString();
+		this.previous.clear();
+		
+		if(this.file.isFile()) {
+			
+			Log.info("Load cache " + this.file.getPath());
+			
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+				
+				if(in.readInt() == CoverageCache.MAGIC && in.readInt() == CoverageCache.VERSION) {
+					
+					this.reportUnchanged = this.reportKey.equals(CoverageCache.readString(in));
+					int entries = in.readInt();
+					
+					for(int index = 0; index < entries; index++) {
+						
+						this.previous.put(in.readUTF(), CoverageCache.readEntry(in));
+					}
+				}
+				
+			} catch(IOException exception) {
+				
+				Log.warning("The cache could not be read and will be rebuilt: " + exception.getMessage());
+				this.previous.clear();
+				this.reportUnchanged = false;
+			}
+		}
+	}
+	
+	/**
+	 * @return {@code true} if the reports, the way they are merged and the source location are the same as in the previous run, else {@code false}
+	 * @since 1.2.0
+	 */
+	public boolean isReportUnchanged() {
+		
+		return this.reportUnchanged;
+	}
+	
+	/**
+	 * Checks if there is a valid entry for every given source file.
+	 * @param sourceFiles the source files
+	 * @return {@code true} if no source file changed since the previous run, else {@code false}
+	 * @since 1.2.0
+	 */
+	public boolean containsAll(List<SourceFile> sourceFiles) {
+		
+		for(SourceFile sourceFile : sourceFiles) {
+			
+			if(this.lookup(sourceFile) == null) {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @param sourceFile the source file
+	 * @return the entry of the previous run or {@code null} if there is none or the source file changed
+	 * @since 1.2.0
+	 */
+	public CachedSourceFile get(SourceFile sourceFile) {
+		
+		CachedSourceFile entry = this.lookup(sourceFile);
+		(entry != null ? this.hits : this.misses).incrementAndGet();
+		return entry;
+	}
+	
+	/**
+	 * Stores an entry for this run. Only entries that were stored in this run are saved.
+	 * @param sourceFile the source file
+	 * @param entry the entry
+	 * @since 1.2.0
+	 */
+	public void put(SourceFile sourceFile, CachedSourceFile entry) {
+		
+		this.current.put(sourceFile.getFile().getAbsolutePath(), entry);
+	}
+	
+	/**
+	 * Writes the entries of this run to the cache directory.
+	 * @throws IOException if the cache could not be written
+	 * @since 1.2.0
+	 */
+	public void save() throws IOException {
+		
+		File directory = this.file.getParentFile();
+		
+		if(directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			
+			throw new IOException("Could not create the cache directory " + directory.getAbsolutePath());
+		}
+		
+		File temporary = new File(directory, this.file.getName() + ".tmp");
+		
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+			
+			out.writeInt(CoverageCache.MAGIC);
+			out.writeInt(CoverageCache.VERSION);
+			CoverageCache.writeString(out, this.reportKey);
+			out.writeInt(this.current.size());
+			
+			for(Map.Entry<String, CachedSourceFile> entry : this.current.entrySet()) {
+				
+				out.writeUTF(entry.getKey());
+				CoverageCache.writeEntry(out, entry.getValue());
+			}
+		}
+		
+		Files.move(temporary.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Prints how many source files were taken from the cache and the rules for the cache entries.
+	 * @since 1.2.0
+	 */
+	public void printSummary() {
+		
+		int evicted = 0;
+		
+		for(String path : this.previous.keySet()) {
+			
+			if(!this.current.containsKey(path)) {
+				
+				evicted++;
+			}
+		}
+		
+		Log.info("Cache " + this.file.getParent() + " - Reused: " + this.hits.get() + ", Re-read: " + this.misses.get() + ", Evicted: " + evicted);
+		Log.info("A cache entry is invalidated when the size or modification time of its source file changes.");
+		Log.info("Cached coverage is only reused while the report and the source location are unchanged.");
+		Log.info("Entries of source files that were not part of this run are evicted. Use --no-cache to bypass the cache.");
+	}
+	
+	private CachedSourceFile lookup(SourceFile sourceFile) {
+		
+		CachedSourceFile entry = this.previous.get(sourceFile.getFile().getAbsolutePath());
+		
+		if(entry != null && entry.getSize() == sourceFile.getSize() && entry.getLastModified() == sourceFile.getLastModified()) {
+			
+			return entry;
+		}
+		
+		return null;
+	}
+	
+	private static final String readString(DataInputStream in) throws IOException {
+		
+		int length = in.readInt();
+		
+		if(length < 0) {
+			
+			throw new IOException("Invalid string length " + length);
+		}
+		
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static final void writeString(DataOutputStream out, String string) throws IOException {
+		
+		// WRITEUTF FAILS ABOVE 65535 BYTES, WHICH THE REPORT KEY OF MANY MERGED REPORTS CAN EXCEED
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static final CachedSourceFile readEntry(DataInputStream in) throws IOException {
+		
+		long size = in.readLong();
+		long lastModified = in.readLong();
+		String sourceDigest = in.readUTF();
+		int lineCount = in.readInt();
+		SourceFileCoverage coverage = null;
+		
+		if(in.readBoolean()) {
+			
+			String packageName = in.readUTF();
+			String fileName = in.readUTF();
+			int[] lineNumbers = new int[in.readInt()];
+			int[] hits = new int[lineNumbers.length];
+			
+			for(int index = 0; index < lineNumbers.length; index++) {
+				
+				lineNumbers[index] = in.readInt();
+				hits[index] = in.readInt();
+			}
+			
+			coverage = new SourceFileCoverage(packageName, fileName, lineNumbers, hits);
+		}
+		
+		return new CachedSourceFile(size, lastModified, sourceDigest, lineCount, coverage);
+	}
+	
+	private static final void writeEntry(DataOutputStream out, CachedSourceFile entry) throws IOException {
+		
+		out.writeLong(entry.getSize());
+		out.writeLong(entry.getLastModified());
+		out.writeUTF(entry.getSourceDigest());
+		out.writeInt(entry.getLineCount());
+		
+		SourceFileCoverage coverage = entry.getCoverage();
+		out.writeBoolean(coverage != null);
+		
+		if(coverage != null) {
+			
+			int[] lineNumbers = coverage.getLineNumbers();
+			int[] hits = coverage.getHits();
+			out.writeUTF(coverage.getPackageName());
+			out.writeUTF(coverage.getFileName());
+			out.writeInt(lineNumbers.length);
+			
+			for(int index = 0; index < lineNumbers.length; index++) {
+				
+				out.writeInt(lineNumbers[index]);
+				out.writeInt(hits[index]);
+			}
+		}
+	}
+}
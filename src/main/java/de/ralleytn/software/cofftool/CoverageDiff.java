@@ -0,0 +1,415 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the coverage of a report with the coverage of a baseline report.
+ * <p>Both reports can be Coveralls reports or snapshots. The source files are matched by their name. A source file whose
+ * MD5 hash is unchanged is compared line by line, for a changed source file only the number of covered and missed lines is compared,
+ * because its line numbers do not refer to the same code anymore. The baseline is held in memory, the current report is streamed and its
+ * source files are compared in parallel. The result is written as JSON in the order of the current report, followed by the removed files.
+ * Unchanged source files are only counted.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageDiff {
+
+	/**
+	 * How a source file changed between the baseline and the current report.
+	 * @since 1.2.0
+	 */
+	public enum Status {
+		
+		/**
+		 * Neither the source file nor its coverage changed.
+		 * @since 1.2.0
+		 */
+		UNCHANGED,
+		
+		/**
+		 * The source file is unchanged, but the coverage of at least one line changed.
+		 * @since 1.2.0
+		 */
+		MODIFIED,
+		
+		/**
+		 * The source file itself changed.
+		 * @since 1.2.0
+		 */
+		SOURCE_CHANGED,
+		
+		/**
+		 * The source file is not in the baseline.
+		 * @since 1.2.0
+		 */
+		ADDED,
+		
+		/**
+		 * The source file is only in the baseline.
+		 * @since 1.2.0
+		 */
+		REMOVED;
+	}
+	
+	private final int threads;
+	private final Map<Status, Integer> counts = new EnumMap<>(Status.class);
+	private long coveredBefore;
+	private long coveredAfter;
+	private long missedBefore;
+	private long missedAfter;
+	
+	/**
+	 * @param threads the number of threads that compare the source files
+	 * @since 1.2.0
+	 */
+	public CoverageDiff(int threads) {
+		
+		this.threads = threads;
+	}
+	
+	/**
+	 * Compares a report with a baseline and writes the differences.
+	 * @param baselineFile the Coveralls report or snapshot of the baseline
+	 * @param currentFile the current Coveralls report or snapshot
+	 * @param outputFile the file in which the differences are written
+	 * @throws IOException if a report could not be read or the differences could not be written
+	 * @since 1.2.0
+	 */
+	public void diff(File baselineFile, File currentFile, File outputFile) throws IOException {
+		
+		Log.info("Compare " + currentFile.getName() + " with " + baselineFile.getName());
+		Map<String, SourceFileReport> baseline = CoverageDiff.load(baselineFile);
+		boolean ownExecutor = this.threads > 1;
+		ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(this.threads) : null;
+		
+		try(SourceFileReader reader = Snapshots.open(currentFile);
+			JSONWriter writer = new JSONWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8)))) {
+			
+			writer.beginObject();
+			writer.name("baseline");
+			writer.value(baselineFile.getPath());
+			writer.name("current");
+			writer.value(currentFile.getPath());
+			writer.name("files");
+			writer.beginArray();
+			
+			// LIMITS THE NUMBER OF COMPARED FILES THAT WAIT TO BE WRITTEN
+			int window = Math.max(1, this.threads) * 4;
+			Deque<Future<Delta>> pending = new ArrayDeque<>();
+			SourceFileReport current = reader.next();
+			
+			while(current != null || !pending.isEmpty()) {
+				
+				while(current != null && pending.size() < window) {
+					
+					SourceFileReport after = current;
+					SourceFileReport before = baseline.remove(after.getName());
+					Callable<Delta> task = () -> CoverageDiff.compare(before, after);
+					pending.add(executor != null ? executor.submit(task) : Util.run(task));
+					current = reader.next();
+				}
+				
+				this.write(writer, Util.await(pending.poll()));
+			}
+			
+			for(SourceFileReport removed : baseline.values()) {
+				
+				this.write(writer, CoverageDiff.compare(removed, null));
+			}
+			
+			writer.endArray();
+			writer.name("summary");
+			writer.beginObject();
+			
+			for(Status status : Status.values()) {
+				
+				writer.name(status.name().toLowerCase());
+				writer.value(this.getCount(status));
+			}
+			
+			writer.name("covered_before");
+			writer.value(this.coveredBefore);
+			writer.name("covered_after");
+			writer.value(this.coveredAfter);
+			writer.name("missed_before");
+			writer.value(this.missedBefore);
+			writer.name("missed_after");
+			writer.value(this.missedAfter);
+			writer.endObject();
+			writer.endObject();
+			
+		} finally {
+			
+			if(ownExecutor) {
+				
+				executor.shutdownNow();
+			}
+		}
+		
+		Log.info("Unchanged: " + this.getCount(Status.UNCHANGED) + ", Modified: " + this.getCount(Status.MODIFIED) + ", Source changed: " + this.getCount(Status.SOURCE_CHANGED) + ", Added: " + this.getCount(Status.ADDED) + ", Removed: " + this.getCount(Status.REMOVED));
+		Log.info("Covered: " + this.coveredBefore + " -> " + this.coveredAfter + ", Missed: " + this.missedBefore + " -> " + this.missedAfter);
+		Log.info("Wrote the differences to " + outputFile.getName());
+	}
+	
+	/**
+	 * @param status a status
+	 * @return the number of source files with the given status in the last comparison
+	 * @since 1.2.0
+	 */
+	public int getCount(Status status) {
+		
+		return this.counts.getOrDefault(status, 0);
+	}
+	
+	/**
+	 * Counts a compared source file and writes it unless it is unchanged.
+	 * @param writer the writer
+	 * @param delta the differences of the source file
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	private void write(JSONWriter writer, Delta delta) throws IOException {
+		
+		this.counts.merge(delta.status, 1, Integer::sum);
+		this.coveredBefore += delta.coveredBefore;
+		this.coveredAfter += delta.coveredAfter;
+		this.missedBefore += delta.missedBefore;
+		this.missedAfter += delta.missedAfter;
+		
+		if(delta.status == Status.UNCHANGED) {
+			
+			return;
+		}
+		
+		writer.beginObject();
+		writer.name("name");
+		writer.value(delta.name);
+		writer.name("status");
+		writer.value(delta.status.name().toLowerCase());
+		writer.name("covered_before");
+		writer.value(delta.coveredBefore);
+		writer.name("covered_after");
+		writer.value(delta.coveredAfter);
+		writer.name("missed_before");
+		writer.value(delta.missedBefore);
+		writer.name("missed_after");
+		writer.value(delta.missedAfter);
+		
+		if(delta.status == Status.MODIFIED) {
+			
+			// EVERY LINE IS WRITTEN AS [NUMBER, HITS BEFORE, HITS AFTER], NULL IF IT WAS NOT RELEVANT
+			writer.name("lines");
+			writer.beginArray();
+			
+			for(int index = 0; index < delta.lineCount; index++) {
+				
+				writer.beginArray();
+				writer.value(delta.lines[index * 3]);
+				CoverageDiff.writeHits(writer, delta.lines[index * 3 + 1]);
+				CoverageDiff.writeHits(writer, delta.lines[index * 3 + 2]);
+				writer.endArray();
+			}
+			
+			writer.endArray();
+		}
+		
+		writer.endObject();
+	}
+	
+	private static final void writeHits(JSONWriter writer, int hits) throws IOException {
+		
+		if(hits == SourceFileReport.IRRELEVANT) {
+			
+			writer.nullValue();
+			
+		} else {
+			
+			writer.value(hits);
+		}
+	}
+	
+	/**
+	 * Reads all source files of a report into a map. If a name appears more than once, the first source file is used.
+	 * @param file the Coveralls report or snapshot
+	 * @return the source files by their name in the order of the report
+	 * @throws IOException if the report could not be read
+	 * @since 1.2.0
+	 */
+	private static final Map<String, SourceFileReport> load(File file) throws IOException {
+		
+		Map<String, SourceFileReport> reports = new LinkedHashMap<>();
+		
+		try(SourceFileReader reader = Snapshots.open(file)) {
+			
+			SourceFileReport report = null;
+			
+			while((report = reader.next()) != null) {
+				
+				reports.putIfAbsent(report.getName(), report);
+			}
+		}
+		
+		return reports;
+	}
+	
+	/**
+	 * Compares a source file with its baseline. This method is called concurrently for different source files.
+	 * @param before the source file in the baseline or {@code null} if it was added
+	 * @param after the source file in the current report or {@code null} if it was removed
+	 * @return the differences
+	 * @since 1.2.0
+	 */
+	private static final Delta compare(SourceFileReport before, SourceFileReport after) {
+		
+		Delta delta = new Delta();
+		
+		if(before != null) {
+			
+			delta.name = before.getName();
+			delta.coveredBefore = before.getCoveredLineCount();
+			delta.missedBefore = before.getMissedLineCount();
+		}
+		
+		if(after != null) {
+			
+			delta.name = after.getName();
+			delta.coveredAfter = after.getCoveredLineCount();
+			delta.missedAfter = after.getMissedLineCount();
+		}
+		
+		if(before == null) {
+			
+			delta.status = Status.ADDED;
+			
+		} else if(after == null) {
+			
+			delta.status = Status.REMOVED;
+			
+		} else if(!Objects.equals(before.getSourceDigest(), after.getSourceDigest()) || before.getLineCount() != after.getLineCount()) {
+			
+			delta.status = Status.SOURCE_CHANGED;
+			
+		} else {
+			
+			CoverageDiff.compareLines(before, after, delta);
+			delta.status = delta.lineCount > 0 ? Status.MODIFIED : Status.UNCHANGED;
+		}
+		
+		return delta;
+	}
+	
+	/**
+	 * Walks the relevant lines of both source files at once and collects every line whose hits differ.
+	 * @param before the source file in the baseline
+	 * @param after the source file in the current report
+	 * @param delta the differences to which the lines are added
+	 * @since 1.2.0
+	 */
+	private static final void compareLines(SourceFileReport before, SourceFileReport after, Delta delta) {
+		
+		int[] beforeLines = before.getLineNumbers();
+		int[] beforeHits = before.getHits();
+		int[] afterLines = after.getLineNumbers();
+		int[] afterHits = after.getHits();
+		int[] lines = new int[48];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		
+		while(i < beforeLines.length || j < afterLines.length) {
+			
+			int line = 0;
+			int hitsBefore = SourceFileReport.IRRELEVANT;
+			int hitsAfter = SourceFileReport.IRRELEVANT;
+			
+			if(j == afterLines.length || (i < beforeLines.length && beforeLines[i] < afterLines[j])) {
+				
+				line = beforeLines[i];
+				hitsBefore = beforeHits[i++];
+				
+			} else if(i == beforeLines.length || afterLines[j] < beforeLines[i]) {
+				
+				line = afterLines[j];
+				hitsAfter = afterHits[j++];
+				
+			} else {
+				
+				line = beforeLines[i];
+				hitsBefore = beforeHits[i++];
+				hitsAfter = afterHits[j++];
+			}
+			
+			if(hitsBefore != hitsAfter) {
+				
+				if(count * 3 == lines.length) {
+					
+					lines = Arrays.copyOf(lines, lines.length * 2);
+				}
+				
+				lines[count * 3] = line;
+				lines[count * 3 + 1] = hitsBefore;
+				lines[count * 3 + 2] = hitsAfter;
+				count++;
+			}
+		}
+		
+		delta.lines = lines;
+		delta.lineCount = count;
+	}
+	
+	/**
+	 * The differences of a single source file.
+	 * @since 1.2.0
+	 */
+	private static final class Delta {
+		
+		private String name;
+		private Status status;
+		private int coveredBefore;
+		private int coveredAfter;
+		private int missedBefore;
+		private int missedAfter;
+		private int[] lines;
+		private int lineCount;
+	}
+}
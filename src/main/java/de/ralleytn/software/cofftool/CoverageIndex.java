@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Indexes the coverage of the source files in a report by their path relative to the default package ({@code package/name/File.java}).
+ * <p>A lookup first tries the full relative path of the source file. If there is no exact match the leading directories are removed one after
+ * another, so the longest suffix of the path that is in the index wins. If the report contains the same relative path more than once,
+ * the first occurrence is used.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageIndex implements Consumer<SourceFileCoverage> {
+
+	private final Map<String, SourceFileCoverage> coverages = new HashMap<>();
+	
+	/**
+	 * Adds the coverage of a source file to the index.
+	 * @param coverage the coverage of the source file
+	 * @since 1.2.0
+	 */
+	@Override
+	public void accept(SourceFileCoverage coverage) {
+		
+		String name = coverage.getName();
+		
+		if(this.coverages.putIfAbsent(name, coverage) != null) {
+			
+			Log.warning(name + " appears more than once in the report, only the first occurrence is used");
+		}
+	}
+	
+	/**
+	 * Searches for the coverage of a source file.
+	 * @param relativePath the path of the source file relative to the source location ({@code /} separated)
+	 * @return the coverage or {@code null} if there is no coverage for the given source file
+	 * @since 1.2.0
+	 */
+	public SourceFileCoverage get(String relativePath) {
+		
+		String path = relativePath.replace('\\', '/');
+		
+		while(true) {
+			
+			SourceFileCoverage coverage = this.coverages.get(path);
+			
+			if(coverage != null) {
+				
+				return coverage;
+			}
+			
+			int separator = path.indexOf('/');
+			
+			if(separator == -1) {
+				
+				return null;
+			}
+			
+			path = path.substring(separator + 1);
+		}
+	}
+	
+	/**
+	 * @return the number of indexed source files
+	 * @since 1.2.0
+	 */
+	public int size() {
+		
+		return this.coverages.size();
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Merges the coverage of the same source files from several reports line by line.
+ * The reports can be read concurrently, every source file is merged as soon as it was read, so only the merged coverage is held in memory.
+ * <p>If a report contains the same source file more than once, only the first occurrence is merged, like in {@linkplain CoverageIndex}.
+ * Use {@linkplain #forReport()} to get the callback for a single report.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageMerger implements Consumer<SourceFileCoverage> {
+
+	/**
+	 * How the hits of the same line are combined.
+	 * @since 1.2.0
+	 */
+	public enum Mode {
+		
+		/**
+		 * The hits of all reports are added.
+		 * @since 1.2.0
+		 */
+		SUM,
+		
+		/**
+		 * A line is covered if it is covered in any report. The highest number of hits is used.
+		 * @since 1.2.0
+		 */
+		ANY;
+	}
+	
+	private final Map<String, SourceFileCoverage> coverages = new ConcurrentHashMap<>();
+	private final Mode mode;
+	
+	/**
+	 * @param mode how the hits of the same line are combined
+	 * @since 1.2.0
+	 */
+	public CoverageMerger(Mode mode) {
+		
+		this.mode = mode;
+	}
+	
+	/**
+	 * Merges the coverage of a source file. Every call is treated like the coverage of another report.
+	 * @param coverage the coverage of the source file
+	 * @since 1.2.0
+	 */
+	@Override
+	public void accept(SourceFileCoverage coverage) {
+		
+		this.coverages.merge(coverage.getName(), coverage, this::merge);
+	}
+	
+	/**
+	 * Creates the callback for one report. It skips every further occurrence of a source file in the same report.
+	 * The callback is not thread safe, but the callbacks of different reports can be used concurrently.
+	 * @return the callback
+	 * @since 1.2.0
+	 */
+	public Consumer<SourceFileCoverage> forReport() {
+		
+		Set<String> names = new HashSet<>();
+		
+		return coverage -> {
+			
+			String name = coverage.getName();
+			
+			if(names.add(name)) {
+				
+				this.accept(coverage);
+				
+			} else {
+				
+				Log.warning(name + " appears more than once in the report, only the first occurrence is used");
+			}
+		};
+	}
+	
+	/**
+	 * Passes the merged coverage of every source file to a callback.
+	 * @param callback the callback
+	 * @since 1.2.0
+	 */
+	public void forEach(Consumer<SourceFileCoverage> callback) {
+		
+		this.coverages.values().forEach(callback);
+	}
+	
+	/**
+	 * @return the number of different source files
+	 * @since 1.2.0
+	 */
+	public int size() {
+		
+		return this.coverages.size();
+	}
+	
+	/**
+	 * Merges two coverages of the same source file. The line numbers of both are sorted in ascending order, like in the report.
+	 * @param first the first coverage
+	 * @param second the second coverage
+	 * @return the merged coverage
+	 * @since 1.2.0
+	 */
+	private SourceFileCoverage merge(SourceFileCoverage first, SourceFileCoverage second) {
+		
+		int[] firstLines = first.getLineNumbers();
+		int[] firstHits = first.getHits();
+		int[] secondLines = second.getLineNumbers();
+		int[] secondHits = second.getHits();
+		int[] lineNumbers = new int[firstLines.length + secondLines.length];
+		int[] hits = new int[lineNumbers.length];
+		int firstIndex = 0;
+		int secondIndex = 0;
+		int count = 0;
+		
+		while(firstIndex < firstLines.length || secondIndex < secondLines.length) {
+			
+			int firstLine = firstIndex < firstLines.length ? firstLines[firstIndex] : Integer.MAX_VALUE;
+			int secondLine = secondIndex < secondLines.length ? secondLines[secondIndex] : Integer.MAX_VALUE;
+			
+			if(firstLine < secondLine) {
+				
+				lineNumbers[count] = firstLine;
+				hits[count] = firstHits[firstIndex++];
+				
+			} else if(secondLine < firstLine) {
+				
+				lineNumbers[count] = secondLine;
+				hits[count] = secondHits[secondIndex++];
+				
+			} else {
+				
+				lineNumbers[count] = firstLine;
+				hits[count] = this.mode == Mode.SUM ? firstHits[firstIndex++] + secondHits[secondIndex++] : Math.max(firstHits[firstIndex++], secondHits[secondIndex++]);
+			}
+			
+			count++;
+		}
+		
+		return new SourceFileCoverage(first.getPackageName(), first.getFileName(), Arrays.copyOf(lineNumbers, count), Arrays.copyOf(hits, count));
+	}
+}
@@ -0,0 +1,644 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Combines a JaCoCo report with the source files it was created for and writes the result as Coveralls coverage data.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageReportGenerator {
+
+	private static final ThreadLocal<SourceScanner> SCANNER = ThreadLocal.withInitial(SourceScanner::new);
+	
+	private final int threads;
+	private final ExecutorService executor;
+	private final ForkJoinPool walkerPool;
+	private final CoverageCache cache;
+	private final FileTreeWalker walker;
+	private final Metrics metrics;
+	
+	/**
+	 * @param threads the number of threads that process the source files
+	 * @param cache the cache with the results of the previous run or {@code null} if no cache should be used
+	 * @param walker the walker that searches for the source files
+	 * @param metrics the metrics to which the time, files and bytes of every stage are added
+	 * @since 1.2.0
+	 */
+	public CoverageReportGenerator(int threads, CoverageCache cache, FileTreeWalker walker, Metrics metrics) {
+		
+		this(threads, null, null, cache, walker, metrics);
+	}
+	
+	/**
+	 * Creates a generator that processes and searches the source files on thread pools that are shared with other generators.
+	 * @param threads the number of threads of the pool
+	 * @param executor the shared thread pool; it is not shut down by the generator
+	 * @param walkerPool the shared pool on which the source files are searched or {@code null} if the generator should create its own; it is not shut down by the generator
+	 * @param cache the cache with the results of the previous run or {@code null} if no cache should be used
+	 * @param walker the walker that searches for the source files
+	 * @param metrics the metrics to which the time, files and bytes of every stage are added
+	 * @since 1.2.0
+	 */
+	public CoverageReportGenerator(int threads, ExecutorService executor, ForkJoinPool walkerPool, CoverageCache cache, FileTreeWalker walker, Metrics metrics) {
+		
+		this.threads = threads;
+		this.executor = executor;
+		this.walkerPool = walkerPool;
+		this.cache = cache;
+		this.walker = walker;
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Creates the coverage data that will be send to Coveralls based on a JaCoCo report.
+	 * The source files are processed by the given number of threads and every result is written as soon as all files before it were written.
+	 * The order of the report and the printed output is the same as with a single thread.
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param reportFile the JaCoCo XML report
+	 * @param writer the writer on which the reports of the source files are written
+	 * @throws XMLStreamException if the XML of the report is invalid
+	 * @throws IOException if some files could not be read or the report could not be written
+	 * @since 1.2.0
+	 */
+	public void createCoverageReportData(String sourceLocation, File reportFile, ReportWriter writer) throws XMLStreamException, IOException {
+		
+		this.createCoverageReportData(sourceLocation, Collections.singletonList(reportFile), CoverageMerger.Mode.SUM, writer);
+	}
+	
+	/**
+	 * Creates the coverage data that will be send to Coveralls based on one or more JaCoCo reports.
+	 * Several reports are read in parallel and merged line by line, for example the reports of different test shards.
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param reportFiles the JaCoCo XML reports
+	 * @param mode how the hits of the same line in different reports are combined
+	 * @param writer the writer on which the reports of the source files are written
+	 * @throws XMLStreamException if the XML of a report is invalid
+	 * @throws IOException if some files could not be read or the report could not be written
+	 * @since 1.2.0
+	 */
+	public void createCoverageReportData(String sourceLocation, List<File> reportFiles, CoverageMerger.Mode mode, ReportWriter writer) throws XMLStreamException, IOException {
+		
+		List<SourceFile> relevantSourceFiles = this.collectSourceFiles(new File(sourceLocation));
+		CoverageIndex coverages = new CoverageIndex();
+		
+		if(this.cache != null) {
+			
+			this.cache.load(reportFiles, mode, sourceLocation);
+		}
+		
+		boolean ownExecutor = this.executor == null && this.threads > 1;
+		ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(this.threads) : this.executor;
+		
+		try {
+			
+			if(this.cache != null && this.cache.isReportUnchanged() && this.cache.containsAll(relevantSourceFiles)) {
+				
+				Log.info("The reports and all source files are unchanged, the cached coverage is used");
+				
+			} else {
+				
+				this.readReports(reportFiles, mode, coverages, executor);
+			}
+			
+			this.writeSourceFileReports(sourceLocation, relevantSourceFiles, coverages, writer, executor);
+			
+		} finally {
+			
+			if(ownExecutor) {
+				
+				executor.shutdownNow();
+			}
+		}
+		
+		if(this.cache != null) {
+			
+			this.cache.save();
+			this.cache.printSummary();
+		}
+	}
+	
+	/**
+	 * Creates the coverage data, but only reads the source files that changed.
+	 * <p>The source tree is not walked. The MD5 hash and the line count of an unchanged source file are taken from the previous report,
+	 * only the changed source files are read. The coverage of every source file is taken from the JaCoCo reports, so it is up to date even
+	 * if only the tests changed. The result is the same as the one of {@linkplain #createCoverageReportData(String, List, CoverageMerger.Mode, ReportWriter)},
+	 * as long as the previous report was created from the same source tree before the changes. The cache is not used.</p>
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param reportFiles the JaCoCo XML reports
+	 * @param mode how the hits of the same line in different reports are combined
+	 * @param writer the writer on which the reports of the source files are written
+	 * @param previousReport the Coveralls report or snapshot of the previous run; it must not be the file that is written
+	 * @param changes the files that changed since the previous run
+	 * @throws XMLStreamException if the XML of a report is invalid
+	 * @throws IOException if some files could not be read or the report could not be written
+	 * @since 1.2.0
+	 */
+	public void createCoverageReportData(String sourceLocation, List<File> reportFiles, CoverageMerger.Mode mode, ReportWriter writer, File previousReport, ChangedFiles changes) throws XMLStreamException, IOException {
+		
+		List<Object> sources = this.collectChangedSourceFiles(new File(sourceLocation), writer.getNamePrefix(), previousReport, changes);
+		CoverageIndex coverages = new CoverageIndex();
+		boolean ownExecutor = this.executor == null && this.threads > 1;
+		ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(this.threads) : this.executor;
+		
+		try {
+			
+			this.readReports(reportFiles, mode, coverages, executor);
+			this.writeSourceFileReports(sourceLocation, sources, coverages, writer, executor);
+			
+		} finally {
+			
+			if(ownExecutor) {
+				
+				executor.shutdownNow();
+			}
+		}
+	}
+	
+	/**
+	 * Processes the source files in parallel and writes them in their order.
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param sources the source files; a {@linkplain SourceFile} is read, a {@linkplain SourceFileReport} of the previous run only gets the current coverage
+	 * @param coverages the coverage of all source files in the report
+	 * @param writer the writer on which the reports of the source files are written
+	 * @param executor the thread pool or {@code null} if the source files should be processed by the current thread
+	 * @throws IOException if a source file could not be read or the report could not be written
+	 * @since 1.2.0
+	 */
+	private void writeSourceFileReports(String sourceLocation, List<?> sources, CoverageIndex coverages, ReportWriter writer, ExecutorService executor) throws IOException {
+		
+		boolean verbose = Log.isEnabled(Log.Level.VERBOSE);
+		int sumLines = 0;
+		int sumCoverred = 0;
+		int sumMissed = 0;
+		
+		Log.info("Create coverage report...");
+		Log.verbose("");
+		Log.verbose("----");
+		
+		// LIMITS THE NUMBER OF PROCESSED FILES THAT WAIT TO BE WRITTEN
+		int window = this.threads * 4;
+		Iterator<?> iterator = sources.iterator();
+		Deque<Future<SourceFileReport>> pending = new ArrayDeque<>();
+		
+		while(iterator.hasNext() || !pending.isEmpty()) {
+			
+			while(iterator.hasNext() && pending.size() < window) {
+				
+				Object source = iterator.next();
+				Callable<SourceFileReport> task = null;
+				
+				if(source instanceof SourceFile) {
+					
+					task = () -> this.createSourceFileReport(sourceLocation, (SourceFile)source, coverages);
+					
+				} else {
+					
+					task = () -> this.updateSourceFileReport((SourceFileReport)source, coverages);
+				}
+				
+				pending.add(executor != null ? executor.submit(task) : Util.run(task));
+			}
+			
+			SourceFileReport report = Util.await(pending.poll());
+			sumLines += report.getLineCount();
+			sumCoverred += report.getCoveredLineCount();
+			sumMissed += report.getMissedLineCount();
+			
+			if(verbose) {
+				
+				Log.verbose(report.getName() + " - Total: " + report.getLineCount() + ", Relevant: " + (report.getCoveredLineCount() + report.getMissedLineCount()) + ", Covered: " + report.getCoveredLineCount() + ", Missed: " + report.getMissedLineCount());
+			}
+			
+			long start = this.metrics.start();
+			writer.write(report);
+			this.metrics.stop(Metrics.Stage.JSON_WRITE, start);
+			this.metrics.addFiles(Metrics.Stage.JSON_WRITE, 1);
+		}
+		
+		Log.verbose("----");
+		Log.verbose("");
+		Log.info("All Files - Total: " + sumLines + ", Relevant: " + (sumCoverred + sumMissed) + ", Covered: " + sumCoverred + ", Missed: " + sumMissed);
+		Log.info("");
+	}
+	
+	/**
+	 * Reads the reports into the index. A single large report is split and its parts are read concurrently, several reports are read concurrently and merged.
+	 * @param reportFiles the JaCoCo XML reports
+	 * @param mode how the hits of the same line in different reports are combined
+	 * @param coverages the index into which the coverage is read
+	 * @param executor the thread pool or {@code null} if the reports should be read by the current thread
+	 * @throws XMLStreamException if the XML of a report is invalid
+	 * @throws IOException if a report could not be read
+	 * @since 1.2.0
+	 */
+	private void readReports(List<File> reportFiles, CoverageMerger.Mode mode, CoverageIndex coverages, ExecutorService executor) throws XMLStreamException, IOException {
+		
+		long start = this.metrics.start();
+		
+		if(reportFiles.size() == 1) {
+			
+			new ReportReader().read(reportFiles.get(0), coverages, executor, this.threads);
+			
+		} else {
+			
+			CoverageMerger merger = new CoverageMerger(mode);
+			List<Future<Void>> results = new ArrayList<>();
+			
+			for(File reportFile : reportFiles) {
+				
+				Callable<Void> task = () -> {
+					
+					new ReportReader().read(reportFile, merger.forReport());
+					return null;
+				};
+				
+				results.add(executor != null ? executor.submit(task) : Util.run(task));
+			}
+			
+			for(Future<Void> result : results) {
+				
+				Util.await(result);
+			}
+			
+			merger.forEach(coverages);
+			Log.info("Merged " + reportFiles.size() + " reports (" + mode.name().toLowerCase() + "), " + merger.size() + " source files");
+		}
+		
+		this.metrics.stop(Metrics.Stage.XML_PARSE, start);
+		this.metrics.addFiles(Metrics.Stage.XML_PARSE, coverages.size());
+		
+		for(File reportFile : reportFiles) {
+			
+			this.metrics.addBytesRead(Metrics.Stage.XML_PARSE, reportFile.length());
+		}
+	}
+	
+	/**
+	 * Reads a single source file and combines it with its coverage from the report.
+	 * A source file that did not change since the previous run is not read again.
+	 * This method is called concurrently for different source files.
+	 * @param sourceLocation the location of the source files on default package level
+	 * @param sourceFile the source file
+	 * @param coverages the coverage of all source files in the report
+	 * @return the report for the source file
+	 * @throws IOException if the source file could not be read
+	 * @since 1.2.0
+	 */
+	private SourceFileReport createSourceFileReport(String sourceLocation, SourceFile sourceFile, CoverageIndex coverages) throws IOException {
+		
+		String fullName = Util.getFullName(sourceLocation, sourceFile.getFile());
+		CachedSourceFile cached = this.cache != null ? this.cache.get(sourceFile) : null;
+		String sourceDigest = null;
+		int lineCount = 0;
+		
+		if(cached != null) {
+			
+			sourceDigest = cached.getSourceDigest();
+			lineCount = cached.getLineCount();
+			
+		} else {
+			
+			long start = this.metrics.start();
+			SourceScanner scanner = CoverageReportGenerator.SCANNER.get();
+			scanner.scan(sourceFile.getFile());
+			sourceDigest = scanner.getMD5();
+			lineCount = scanner.getLineCount();
+			this.metrics.stop(Metrics.Stage.DIGESTING, start);
+			this.metrics.addFiles(Metrics.Stage.DIGESTING, 1);
+			this.metrics.addBytesRead(Metrics.Stage.DIGESTING, sourceFile.getSize());
+		}
+		
+		long start = this.metrics.start();
+		SourceFileCoverage sourceFileCoverage = cached != null && this.cache.isReportUnchanged() ? cached.getCoverage() : coverages.get(fullName);
+		
+		if(this.cache != null) {
+			
+			this.cache.put(sourceFile, new CachedSourceFile(sourceFile.getSize(), sourceFile.getLastModified(), sourceDigest, lineCount, sourceFileCoverage));
+		}
+		
+		SourceFileReport report = CoverageReportGenerator.match(fullName, sourceDigest, lineCount, sourceFileCoverage);
+		this.metrics.stop(Metrics.Stage.MATCHING, start);
+		this.metrics.addFiles(Metrics.Stage.MATCHING, 1);
+		return report;
+	}
+	
+	/**
+	 * Combines an unchanged source file of the previous run with its current coverage.
+	 * This method is called concurrently for different source files.
+	 * @param previous the source file in the previous report, without the name prefix
+	 * @param coverages the coverage of all source files in the report
+	 * @return the report for the source file
+	 * @since 1.2.0
+	 */
+	private SourceFileReport updateSourceFileReport(SourceFileReport previous, CoverageIndex coverages) {
+		
+		long start = this.metrics.start();
+		SourceFileReport report = CoverageReportGenerator.match(previous.getName(), previous.getSourceDigest(), previous.getLineCount(), coverages.get(previous.getName()));
+		this.metrics.stop(Metrics.Stage.MATCHING, start);
+		this.metrics.addFiles(Metrics.Stage.MATCHING, 1);
+		return report;
+	}
+	
+	/**
+	 * Creates the report of a source file from its coverage in the JaCoCo report.
+	 * @param fullName the path of the source file relative to the source location
+	 * @param sourceDigest the hexadecimal MD5 hash of the source file
+	 * @param lineCount the number of lines in the source file
+	 * @param sourceFileCoverage the coverage or {@code null} if the source file is not in the report
+	 * @return the report for the source file
+	 * @since 1.2.0
+	 */
+	private static final SourceFileReport match(String fullName, String sourceDigest, int lineCount, SourceFileCoverage sourceFileCoverage) {
+		
+		if(sourceFileCoverage == null) {
+			
+			return new SourceFileReport(fullName, sourceDigest, lineCount, new int[0], new int[0], 0, 0);
+			
+		} else if(CoverageReportGenerator.isAscending(sourceFileCoverage.getLineNumbers(), lineCount)) {
+			
+			// THE ARRAYS OF THE REPORT ARE SHARED, THE LINES ARE ONLY EXPANDED WHEN THEY ARE WRITTEN
+			return new SourceFileReport(fullName, sourceDigest, lineCount, sourceFileCoverage.getLineNumbers(), sourceFileCoverage.getHits(), sourceFileCoverage.getCoveredLineCount(), sourceFileCoverage.getMissedLineCount());
+			
+		} else {
+			
+			return CoverageReportGenerator.sort(fullName, sourceDigest, lineCount, sourceFileCoverage);
+		}
+	}
+	
+	/**
+	 * Creates the report of a source file whose line numbers in the JaCoCo report are not strictly ascending or not within the source file.
+	 * Lines outside of the source file are left out, because the report is older than the source file. If a line is given more than once, the last one is used.
+	 * @param fullName the path of the source file relative to the source location
+	 * @param sourceDigest the hexadecimal MD5 hash of the source file
+	 * @param lineCount the number of lines in the source file
+	 * @param sourceFileCoverage the coverage of the source file
+	 * @return the report for the source file
+	 * @since 1.2.0
+	 */
+	private static final SourceFileReport sort(String fullName, String sourceDigest, int lineCount, SourceFileCoverage sourceFileCoverage) {
+		
+		int[] lineNumbers = sourceFileCoverage.getLineNumbers();
+		int[] hits = sourceFileCoverage.getHits();
+		int[] coverage = new int[lineCount];
+		Arrays.fill(coverage, SourceFileReport.IRRELEVANT);
+		int outside = 0;
+		
+		for(int index = 0; index < lineNumbers.length; index++) {
+			
+			int lineNumber = lineNumbers[index];
+			
+			if(lineNumber < 1 || lineNumber > lineCount) {
+				
+				outside++;
+				
+			} else {
+				
+				coverage[lineNumber - 1] = hits[index];
+			}
+		}
+		
+		if(outside > 0) {
+			
+			Log.warning(fullName + " has " + lineCount + " lines, but the report contains " + outside + " lines outside of it; the report may be older than the source file");
+		}
+		
+		int relevant = 0;
+		
+		for(int hit : coverage) {
+			
+			if(hit != SourceFileReport.IRRELEVANT) {
+				
+				relevant++;
+			}
+		}
+		
+		int[] sortedLineNumbers = new int[relevant];
+		int[] sortedHits = new int[relevant];
+		int covered = 0;
+		int next = 0;
+		
+		for(int index = 0; index < coverage.length; index++) {
+			
+			if(coverage[index] != SourceFileReport.IRRELEVANT) {
+				
+				sortedLineNumbers[next] = index + 1;
+				sortedHits[next] = coverage[index];
+				covered += coverage[index] > 0 ? 1 : 0;
+				next++;
+			}
+		}
+		
+		return new SourceFileReport(fullName, sourceDigest, lineCount, sortedLineNumbers, sortedHits, covered, relevant - covered);
+	}
+	
+	/**
+	 * @param lineNumbers the line numbers of a source file in the report
+	 * @param lineCount the number of lines in the source file
+	 * @return {@code true} if the line numbers are strictly ascending and within the source file, else {@code false}
+	 * @since 1.2.0
+	 */
+	private static final boolean isAscending(int[] lineNumbers, int lineCount) {
+		
+		int previous = 0;
+		
+		for(int lineNumber : lineNumbers) {
+			
+			if(lineNumber <= previous) {
+				
+				return false;
+			}
+			
+			previous = lineNumber;
+		}
+		
+		return previous <= lineCount;
+	}
+	
+	/**
+	 * Searches for all source files. (except the module-info.java)
+	 * @param sourceFolder the location of the source files on default package level
+	 * @return a list with the relevant source files
+	 * @throws IOException if the directory tree could not be walked
+	 * @since 1.0.0
+	 */
+	private List<SourceFile> collectSourceFiles(File sourceFolder) throws IOException {
+		
+		Log.info("Collect project source files...");
+		Log.verbose("");
+		Log.verbose("----");
+		
+		long start = this.metrics.start();
+		List<SourceFile> sourceFiles = this.walkerPool != null ? this.walker.walk(sourceFolder.toPath(), this.walkerPool) : this.walker.walk(sourceFolder.toPath(), this.threads);
+		this.metrics.stop(Metrics.Stage.SOURCE_COLLECTION, start);
+		this.metrics.addFiles(Metrics.Stage.SOURCE_COLLECTION, sourceFiles.size());
+		
+		if(Log.isEnabled(Log.Level.VERBOSE)) {
+			
+			for(SourceFile sourceFile : sourceFiles) {
+				
+				Log.verbose("Collect " + sourceFile.getFile().getAbsolutePath());
+			}
+		}
+		
+		Log.verbose("----");
+		Log.verbose("");
+		Log.info("Collected " + sourceFiles.size() + " source files");
+		Log.info("");
+		
+		return sourceFiles;
+	}
+	
+	/**
+	 * Combines the unchanged source files of a previous report with the changed source files, without walking the source tree.
+	 * Deleted source files and source files that are not accepted by the walker are left out.
+	 * @param sourceFolder the location of the source files on default package level
+	 * @param namePrefix the prefix of the names in the previous report
+	 * @param previousReport the Coveralls report or snapshot of the previous run
+	 * @param changes the files that changed since the previous run
+	 * @return the source files in the order of {@linkplain FileTreeWalker#walk(Path, int)}; a {@linkplain SourceFile} for every changed
+	 *         and a {@linkplain SourceFileReport} without the name prefix for every unchanged source file
+	 * @throws IOException if the previous report could not be read
+	 * @since 1.2.0
+	 */
+	private List<Object> collectChangedSourceFiles(File sourceFolder, String namePrefix, File previousReport, ChangedFiles changes) throws IOException {
+		
+		Log.info("Collect changed source files...");
+		
+		long start = this.metrics.start();
+		Path root = sourceFolder.getAbsoluteFile().toPath().normalize();
+		TreeMap<String, Object> sources = new TreeMap<>(CoverageReportGenerator::compareNames);
+		int skipped = 0;
+		
+		try(SourceFileReader reader = Snapshots.open(previousReport)) {
+			
+			SourceFileReport report = null;
+			
+			while((report = reader.next()) != null) {
+				
+				if(!report.getName().startsWith(namePrefix)) {
+					
+					skipped++;
+					continue;
+				}
+				
+				String name = report.getName().substring(namePrefix.length());
+				Path relativePath = Paths.get(name);
+				
+				if(!changes.contains(root.resolve(relativePath)) && this.walker.accepts(relativePath) && !sources.containsKey(name)) {
+					
+					sources.put(name, new SourceFileReport(name, report.getSourceDigest(), report.getLineCount(), report.getLineNumbers(), report.getHits(), report.getCoveredLineCount(), report.getMissedLineCount()));
+				}
+			}
+		}
+		
+		int unchanged = sources.size();
+		
+		for(Path path : changes.getPaths()) {
+			
+			if(path.startsWith(root) && this.walker.accepts(root.relativize(path))) {
+				
+				try {
+					
+					BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+					
+					if(attributes.isRegularFile()) {
+						
+						Log.verbose("Collect " + path);
+						sources.put(root.relativize(path).toString().replace('\\', '/'), new SourceFile(path.toFile(), attributes));
+					}
+					
+				} catch(NoSuchFileException exception) {
+					
+					// THE FILE WAS DELETED
+					Log.verbose("Remove " + path);
+				}
+			}
+		}
+		
+		this.metrics.stop(Metrics.Stage.SOURCE_COLLECTION, start);
+		this.metrics.addFiles(Metrics.Stage.SOURCE_COLLECTION, sources.size());
+		this.metrics.addBytesRead(Metrics.Stage.SOURCE_COLLECTION, previousReport.length());
+		
+		if(skipped > 0) {
+			
+			Log.warning(skipped + " source files in " + previousReport.getName() + " do not start with " + namePrefix + " and are left out");
+		}
+		
+		Log.info("Collected " + sources.size() + " source files, " + unchanged + " unchanged from " + previousReport.getName() + ", " + (sources.size() - unchanged) + " changed");
+		Log.info("");
+		
+		return new ArrayList<>(sources.values());
+	}
+	
+	/**
+	 * Compares two relative paths directory by directory, which is the order of {@linkplain FileTreeWalker#walk(Path, int)}.
+	 * @param first the first path ({@code /} separated)
+	 * @param second the second path ({@code /} separated)
+	 * @return a negative number, zero or a positive number if the first path is less than, equal to or greater than the second one
+	 * @since 1.2.0
+	 */
+	private static final int compareNames(String first, String second) {
+		
+		int length = Math.min(first.length(), second.length());
+		
+		for(int index = 0; index < length; index++) {
+			
+			char a = first.charAt(index);
+			char b = second.charAt(index);
+			
+			if(a != b) {
+				
+				// THE END OF A DIRECTORY NAME COMES BEFORE EVERY OTHER CHARACTER
+				return a == '/' ? -1 : b == '/' ? 1 : a - b;
+			}
+		}
+		
+		return first.length() - second.length();
+	}
+}
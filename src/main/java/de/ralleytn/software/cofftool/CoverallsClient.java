@@ -35,27 +35,82 @@ import java.net.HttpURLConnection;
  */
 public class CoverallsClient extends Client {
 
+	private String url;
+	private long bytesSent;
+	
+	/**
+	 * Creates a client for the public Coveralls API.
+	 * @since 1.2.0
+	 */
+	public CoverallsClient() {
+		
+		this("https://coveralls.io/api/v1/jobs");
+	}
+	
+	/**
+	 * @param url the URL of the jobs endpoint (for example a local server while testing)
+	 * @since 1.2.0
+	 */
+	public CoverallsClient(String url) {
+		
+		this.url = url;
+	}
+	
 	/**
 	 * Submits a coverage report to Coveralls.
-	 * @param file the file that should be submitted
+	 * @param report the file that should be submitted
 	 * @return {@code true} if the action was successful, else {@code false}
 	 * @throws IOException if there was an I/O error in the request
 	 * @since 1.0.0
 	 */
 	public boolean submitCoverageReport(File report) throws IOException {
 		
-		String url = "https://coveralls.io/api/v1/jobs";
-		System.out.println("[INFO] Do a POST to " + url);
-		HttpURLConnection connection = this.createConnection(url, "POST");
+		return this.submitCoverageReport(report, false);
+	}
+	
+	/**
+	 * Submits a coverage report to Coveralls.
+	 * @param report the file that should be submitted
+	 * @param compress {@code true} if the report should be compressed with GZIP while it is sent
+	 * @return {@code true} if the action was successful, else {@code false}
+	 * @throws IOException if there was an I/O error in the request
+	 * @since 1.2.0
+	 */
+	public boolean submitCoverageReport(File report, boolean compress) throws IOException {
 		
-		try(MultipartWriter writer = new MultipartWriter(connection)) {
+		Log.info("Do a POST to " + this.url);
+		HttpURLConnection connection = this.request(this.url, "POST", target -> {
+			
+			MultipartWriter writer = new MultipartWriter(target);
+			
+			try(writer) {
+				
+				if(compress) {
+					
+					writer.writeCompressedFile("json_file", report);
+					
+				} else {
+					
+					writer.writeFile("json_file", report);
+				}
+			}
 			
-			writer.writeFile("json_file", report);
-		}
+			this.bytesSent = writer.getBytesWritten();
+			
+		// A JOB MUST NOT BE CREATED TWICE, SO THE SUBMISSION IS NOT IDEMPOTENT
+		}, false);
 		
-		int status = connection.getResponseCode();
-		System.out.println("[INFO] " + status + " " + connection.getResponseMessage());
-		boolean success = (status == 200);
+		boolean success = (connection.getResponseCode() == 200);
+		this.readResponse(connection);
 		return success;
 	}
+	
+	/**
+	 * @return the number of bytes of the request body that were sent by the last attempt of the last submission
+	 * @since 1.2.0
+	 */
+	public long getBytesSent() {
+		
+		return this.bytesSent;
+	}
 }
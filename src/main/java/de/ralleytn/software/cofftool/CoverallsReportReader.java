@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a Coveralls report that was written by {@linkplain ReportWriter} source file by source file.
+ * Only one source file is held in memory at a time.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverallsReportReader implements SourceFileReader {
+
+	private final JSONReader reader;
+	private int[] lineNumbers = new int[1024];
+	private int[] hits = new int[1024];
+	private long serviceJobId = -1;
+	private boolean inSourceFiles;
+	
+	/**
+	 * @param file the Coveralls report
+	 * @throws IOException if the file could not be opened
+	 * @since 1.2.0
+	 */
+	public CoverallsReportReader(File file) throws IOException {
+		
+		this.reader = new JSONReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)));
+		this.reader.beginObject();
+	}
+	
+	@Override
+	public SourceFileReport next() throws IOException {
+		
+		while(true) {
+			
+			if(this.inSourceFiles) {
+				
+				if(this.reader.hasNext()) {
+					
+					return this.readSourceFile();
+				}
+				
+				this.reader.endArray();
+				this.inSourceFiles = false;
+			}
+			
+			if(!this.reader.hasNext()) {
+				
+				return null;
+			}
+			
+			String name = this.reader.nextName();
+			
+			if("source_files".equals(name)) {
+				
+				this.reader.beginArray();
+				this.inSourceFiles = true;
+				
+			} else if("service_job_id".equals(name)) {
+				
+				this.serviceJobId = this.reader.nextLong();
+				
+			} else {
+				
+				this.reader.skipValue();
+			}
+		}
+	}
+	
+	@Override
+	public long getServiceJobId() {
+		
+		return this.serviceJobId;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		this.reader.close();
+	}
+	
+	private SourceFileReport readSourceFile() throws IOException {
+		
+		String name = null;
+		String sourceDigest = null;
+		int lineCount = 0;
+		int relevant = 0;
+		int covered = 0;
+		int missed = 0;
+		this.reader.beginObject();
+		
+		while(this.reader.hasNext()) {
+			
+			String field = this.reader.nextName();
+			
+			if("name".equals(field)) {
+				
+				name = this.reader.nextString();
+				
+			} else if("source_digest".equals(field)) {
+				
+				sourceDigest = this.reader.nextString();
+				
+			} else if("coverage".equals(field)) {
+				
+				lineCount = 0;
+				relevant = 0;
+				covered = 0;
+				missed = 0;
+				this.reader.beginArray();
+				
+				while(this.reader.hasNext()) {
+					
+					lineCount++;
+					
+					if(this.reader.peek() == JSONReader.Token.NULL) {
+						
+						this.reader.nextNull();
+						continue;
+					}
+					
+					int hits = (int)this.reader.nextLong();
+					
+					if(hits > 0) {
+						
+						covered++;
+						
+					} else {
+						
+						missed++;
+					}
+					
+					if(relevant == this.lineNumbers.length) {
+						
+						this.lineNumbers = Arrays.copyOf(this.lineNumbers, relevant * 2);
+						this.hits = Arrays.copyOf(this.hits, relevant * 2);
+					}
+					
+					this.lineNumbers[relevant] = lineCount;
+					this.hits[relevant] = hits;
+					relevant++;
+				}
+				
+				this.reader.endArray();
+				
+			} else {
+				
+				this.reader.skipValue();
+			}
+		}
+		
+		this.reader.endObject();
+		
+		if(name == null) {
+			
+			throw new IOException("A source file has no name");
+		}
+		
+		return new SourceFileReport(name, sourceDigest, lineCount, Arrays.copyOf(this.lineNumbers, relevant), Arrays.copyOf(this.hits, relevant), covered, missed);
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes MD5 hashes without allocating more than the resulting string.
+ * Every thread reuses its own {@linkplain MessageDigest} and the hexadecimal string is created from a lookup table.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class Digests {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final char[] HEX_TABLE = Digests.createHexTable();
+	private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(Digests::createMD5Digest);
+	
+	private Digests() {}
+	
+	/**
+	 * Creates a table with the two hexadecimal characters of every byte.
+	 * @return the table
+	 * @since 1.2.0
+	 */
+	private static final char[] createHexTable() {
+		
+		char[] table = new char[512];
+		
+		for(int value = 0; value < 256; value++) {
+			
+			table[value * 2] = Digests.HEX[value >>> 4];
+			table[value * 2 + 1] = Digests.HEX[value & 0xF];
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * @return a new MD5 digest
+	 * @since 1.2.0
+	 */
+	private static final MessageDigest createMD5Digest() {
+		
+		try {
+			
+			return MessageDigest.getInstance("MD5");
+			
+		} catch(NoSuchAlgorithmException exception) {
+			
+			// WILL NEVER HAPPEN BECAUSE EVERY JAVA PLATFORM HAS TO SUPPORT MD5!
+			throw new IllegalStateException(exception);
+		}
+	}
+	
+	/**
+	 * Gets the MD5 digest of the current thread. It is reset, so data can be streamed into it with {@linkplain MessageDigest#update(byte[], int, int)}.
+	 * The digest must not be handed to another thread.
+	 * @return the reset MD5 digest of the current thread
+	 * @since 1.2.0
+	 */
+	public static final MessageDigest md5() {
+		
+		MessageDigest digest = Digests.MD5.get();
+		digest.reset();
+		return digest;
+	}
+	
+	/**
+	 * Hashes a set of binary data with MD5.
+	 * @param data the binary data
+	 * @return a hexadecimal MD5 hash string of the given data
+	 * @since 1.2.0
+	 */
+	public static final String md5(byte[] data) {
+		
+		return Digests.md5(data, 0, data.length);
+	}
+	
+	/**
+	 * Hashes a part of a set of binary data with MD5.
+	 * @param data the binary data
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return a hexadecimal MD5 hash string of the given bytes
+	 * @since 1.2.0
+	 */
+	public static final String md5(byte[] data, int offset, int length) {
+		
+		MessageDigest digest = Digests.md5();
+		digest.update(data, offset, length);
+		return Digests.toHex(digest.digest());
+	}
+	
+	/**
+	 * Hashes the remaining bytes of a buffer with MD5. The position of the buffer is moved to its limit.
+	 * @param buffer the buffer
+	 * @return a hexadecimal MD5 hash string of the remaining bytes
+	 * @since 1.2.0
+	 */
+	public static final String md5(ByteBuffer buffer) {
+		
+		MessageDigest digest = Digests.md5();
+		digest.update(buffer);
+		return Digests.toHex(digest.digest());
+	}
+	
+	/**
+	 * Converts a set of binary data to a hexadecimal string.
+	 * @param binary the binary data
+	 * @return the created hexadecimal string
+	 * @since 1.2.0
+	 */
+	public static final String toHex(byte[] binary) {
+		
+		char[] hex = new char[binary.length * 2];
+		Digests.toHex(binary, hex, 0);
+		return new String(hex);
+	}
+	
+	/**
+	 * Writes the hexadecimal characters of a set of binary data into an array.
+	 * @param binary the binary data
+	 * @param target the array with space for two characters per byte
+	 * @param offset the index of the first character in the array
+	 * @since 1.2.0
+	 */
+	public static final void toHex(byte[] binary, char[] target, int offset) {
+		
+		int index = offset;
+		
+		for(byte b : binary) {
+			
+			int position = (b & 0xFF) << 1;
+			target[index++] = Digests.HEX_TABLE[position];
+			target[index++] = Digests.HEX_TABLE[position + 1];
+		}
+	}
+	
+	/**
+	 * Converts a hexadecimal string back to binary data.
+	 * @param hex the hexadecimal string with two characters per byte
+	 * @return the binary data
+	 * @throws IllegalArgumentException if the string is not a valid hexadecimal string
+	 * @since 1.2.0
+	 */
+	public static final byte[] fromHex(String hex) {
+		
+		if(hex.length() % 2 != 0) {
+			
+			throw new IllegalArgumentException("Odd number of hexadecimal characters: " + hex);
+		}
+		
+		byte[] binary = new byte[hex.length() / 2];
+		
+		for(int index = 0; index < binary.length; index++) {
+			
+			int high = Character.digit(hex.charAt(index * 2), 16);
+			int low = Character.digit(hex.charAt(index * 2 + 1), 16);
+			
+			if(high == -1 || low == -1) {
+				
+				throw new IllegalArgumentException("Invalid hexadecimal string: " + hex);
+			}
+			
+			binary[index] = (byte)((high << 4) | low);
+		}
+		
+		return binary;
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Searches a directory tree for source files.
+ * <p>Every directory is listed once with {@linkplain Files#walkFileTree(Path, java.util.Set, int, java.nio.file.FileVisitor)}, so the attributes of an entry
+ * are read only once. Sub directories are walked in parallel. The result is sorted by path, independent of the number of threads.</p>
+ * <p>Paths are matched against the glob patterns relative to the root of the tree and with {@code /} as separator.
+ * Without include patterns every {@code .java} file is included. {@code module-info.java} is never included.
+ * A directory that matches an exclude pattern is skipped as a whole.</p>
+ * <p>Symbolic links are followed, like {@linkplain java.io.File#isFile()} does. A link to one of its own parent directories is skipped with a warning.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class FileTreeWalker {
+
+	private final List<PathMatcher> includes = new ArrayList<>();
+	private final List<PathMatcher> excludes = new ArrayList<>();
+	
+	/**
+	 * @param includes glob patterns for the source files that should be included
+	 * @param excludes glob patterns for the files and directories that should be excluded
+	 * @since 1.2.0
+	 */
+	public FileTreeWalker(List<String> includes, List<String> excludes) {
+		
+		FileSystem fileSystem = FileSystems.getDefault();
+		
+		for(String include : includes) {
+			
+			this.includes.add(fileSystem.getPathMatcher("glob:" + include));
+		}
+		
+		for(String exclude : excludes) {
+			
+			this.excludes.add(fileSystem.getPathMatcher("glob:" + exclude));
+		}
+	}
+	
+	/**
+	 * Walks through a directory tree.
+	 * @param root the tree root
+	 * @param threads the number of threads that list directories in parallel
+	 * @return the source files in the tree
+	 * @throws IOException if a directory could not be listed
+	 * @since 1.2.0
+	 */
+	public List<SourceFile> walk(Path root, int threads) throws IOException {
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		
+		try {
+			
+			return this.walk(root, pool);
+			
+		} finally {
+			
+			pool.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Walks through a directory tree on a pool that is shared with other walks, so several trees can be walked at once without a pool for each of them.
+	 * @param root the tree root
+	 * @param pool the pool that lists directories in parallel; it is not shut down
+	 * @return the source files in the tree
+	 * @throws IOException if a directory could not be listed
+	 * @since 1.2.0
+	 */
+	public List<SourceFile> walk(Path root, ForkJoinPool pool) throws IOException {
+		
+		try {
+			
+			return pool.invoke(new DirectoryTask(root, root, Collections.singletonList(FileTreeWalker.getKey(root, null))));
+			
+		} catch(UncheckedIOException exception) {
+			
+			throw exception.getCause();
+		}
+	}
+	
+	/**
+	 * Checks if a single file would be found by {@linkplain #walk(Path, int)} without walking the tree.
+	 * @param relativePath the path of the file relative to the tree root
+	 * @return {@code true} if neither the file nor one of its directories is excluded and the file is included, else {@code false}
+	 * @since 1.2.0
+	 */
+	public boolean accepts(Path relativePath) {
+		
+		for(int index = 1; index < relativePath.getNameCount(); index++) {
+			
+			if(this.isExcluded(relativePath.subpath(0, index))) {
+				
+				return false;
+			}
+		}
+		
+		return this.isIncluded(relativePath, relativePath.getFileName().toString());
+	}
+	
+	/**
+	 * @param directory a directory
+	 * @param attributes the attributes of the directory or {@code null} if they were not read yet
+	 * @return an object that is equal for every path that leads to the same directory
+	 * @since 1.2.0
+	 */
+	private static final Object getKey(Path directory, BasicFileAttributes attributes) {
+		
+		try {
+			
+			Object key = (attributes != null ? attributes : Files.readAttributes(directory, BasicFileAttributes.class)).fileKey();
+			
+			// NOT EVERY FILE SYSTEM HAS FILE KEYS
+			return key != null ? key : directory.toRealPath();
+			
+		} catch(IOException exception) {
+			
+			// THE DIRECTORY CANNOT BE LISTED EITHER, WHICH IS REPORTED WHILE IT IS WALKED
+			return directory.toAbsolutePath().normalize();
+		}
+	}
+	
+	private boolean isIncluded(Path relativePath, String fileName) {
+		
+		if(fileName.equals("module-info.java") || this.isExcluded(relativePath)) {
+			
+			return false;
+		}
+		
+		if(this.includes.isEmpty()) {
+			
+			return fileName.toLowerCase().endsWith(".java");
+		}
+		
+		for(PathMatcher include : this.includes) {
+			
+			if(include.matches(relativePath)) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private boolean isExcluded(Path relativePath) {
+		
+		for(PathMatcher exclude : this.excludes) {
+			
+			if(exclude.matches(relativePath)) {
+				
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Lists a single directory and forks a task for every sub directory.
+	 * @since 1.2.0
+	 */
+	private class DirectoryTask extends RecursiveTask<List<SourceFile>> {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final Path root;
+		private final Path directory;
+		private final List<Object> ancestors;
+		
+		/**
+		 * @param root the tree root
+		 * @param directory the directory that should be listed
+		 * @param ancestors the keys of the directory and all of its parents up to the tree root
+		 * @since 1.2.0
+		 */
+		private DirectoryTask(Path root, Path directory, List<Object> ancestors) {
+			
+			this.root = root;
+			this.directory = directory;
+			this.ancestors = ancestors;
+		}
+		
+		@Override
+		protected List<SourceFile> compute() {
+			
+			// SORTED BY NAME, SO THE RESULT DOES NOT DEPEND ON THE FILE SYSTEM OR THE SCHEDULING
+			TreeMap<String, Object> entries = new TreeMap<>();
+			
+			try {
+				
+				Files.walkFileTree(this.directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+					
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+						
+						Path relativePath = DirectoryTask.this.root.relativize(file);
+						String fileName = file.getFileName().toString();
+						
+						if(attributes.isDirectory()) {
+							
+							if(!FileTreeWalker.this.isExcluded(relativePath)) {
+								
+								Object key = FileTreeWalker.getKey(file, attributes);
+								
+								if(DirectoryTask.this.ancestors.contains(key)) {
+									
+									Log.warning("Skip " + file + ": the link leads to one of its parent directories");
+									
+								} else {
+									
+									List<Object> ancestors = new ArrayList<>(DirectoryTask.this.ancestors);
+									ancestors.add(key);
+									DirectoryTask task = new DirectoryTask(DirectoryTask.this.root, file, ancestors);
+									task.fork();
+									entries.put(fileName, task);
+								}
+							}
+							
+						} else if(attributes.isRegularFile() && FileTreeWalker.this.isIncluded(relativePath, fileName)) {
+							
+							entries.put(fileName, new SourceFile(file.toFile(), attributes));
+						}
+						
+						return FileVisitResult.CONTINUE;
+					}
+					
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exception) {
+						
+						if(exception instanceof FileSystemLoopException) {
+							
+							Log.warning("Skip " + file + ": the link leads to one of its parent directories");
+							
+						} else {
+							
+							Log.warning("Skip " + file + ": " + exception.getMessage());
+						}
+						
+						return FileVisitResult.CONTINUE;
+					}
+				});
+				
+			} catch(IOException exception) {
+				
+				throw new UncheckedIOException(exception);
+			}
+			
+			List<SourceFile> sourceFiles = new ArrayList<>();
+			
+			for(Object entry : entries.values()) {
+				
+				if(entry instanceof DirectoryTask) {
+					
+					sourceFiles.addAll(((DirectoryTask)entry).join());
+					
+				} else {
+					
+					sourceFiles.add((SourceFile)entry);
+				}
+			}
+			
+			return sourceFiles;
+		}
+	}
+}
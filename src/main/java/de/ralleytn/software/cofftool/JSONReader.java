@@ -0,0 +1,545 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads JSON token by token directly from a {@linkplain Reader} without building an object tree first.
+ * Reading can stop at any point, so only the part of a document that is really needed has to be read.
+ * It is the counterpart of {@linkplain JSONWriter}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class JSONReader implements AutoCloseable {
+
+	/**
+	 * The kinds of tokens in a JSON document.
+	 * @since 1.2.0
+	 */
+	public enum Token {
+		
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		NAME,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL,
+		END_DOCUMENT;
+	}
+	
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int DANGLING_NAME = 3;
+	private static final int NONEMPTY_OBJECT = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+	
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private final StringBuilder builder = new StringBuilder();
+	private int position;
+	private int limit;
+	private long offset;
+	private int[] scopes = new int[16];
+	private int depth = 1;
+	private Token peeked;
+	
+	/**
+	 * @param reader the reader from which the JSON should be read
+	 * @since 1.2.0
+	 */
+	public JSONReader(Reader reader) {
+		
+		this.reader = reader;
+		this.scopes[0] = JSONReader.EMPTY_DOCUMENT;
+	}
+	
+	/**
+	 * @return the kind of the next token without consuming it
+	 * @throws IOException if the JSON is malformed or could not be read
+	 * @since 1.2.0
+	 */
+	public Token peek() throws IOException {
+		
+		if(this.peeked != null) {
+			
+			return this.peeked;
+		}
+		
+		int scope = this.scopes[this.depth - 1];
+		
+		if(scope == JSONReader.EMPTY_ARRAY || scope == JSONReader.NONEMPTY_ARRAY) {
+			
+			this.scopes[this.depth - 1] = JSONReader.NONEMPTY_ARRAY;
+			int character = this.nextNonWhitespace();
+			
+			if(character == ']') {
+				
+				this.peeked = Token.END_ARRAY;
+				
+			} else if(scope == JSONReader.EMPTY_ARRAY) {
+				
+				this.position--;
+				this.peeked = this.peekValue();
+				
+			} else if(character == ',') {
+				
+				this.peeked = this.peekValue();
+				
+			} else {
+				
+				throw this.syntaxError("Expected ',' or ']'", character);
+			}
+			
+		} else if(scope == JSONReader.EMPTY_OBJECT || scope == JSONReader.NONEMPTY_OBJECT) {
+			
+			int character = this.nextNonWhitespace();
+			
+			if(character == '}') {
+				
+				this.peeked = Token.END_OBJECT;
+				
+			} else {
+				
+				if(scope == JSONReader.NONEMPTY_OBJECT) {
+					
+					if(character != ',') {
+						
+						throw this.syntaxError("Expected ',' or '}'", character);
+					}
+					
+					character = this.nextNonWhitespace();
+				}
+				
+				if(character != '"') {
+					
+					throw this.syntaxError("Expected a name", character);
+				}
+				
+				this.scopes[this.depth - 1] = JSONReader.DANGLING_NAME;
+				this.peeked = Token.NAME;
+			}
+			
+		} else if(scope == JSONReader.DANGLING_NAME) {
+			
+			this.scopes[this.depth - 1] = JSONReader.NONEMPTY_OBJECT;
+			int character = this.nextNonWhitespace();
+			
+			if(character != ':') {
+				
+				throw this.syntaxError("Expected ':'", character);
+			}
+			
+			this.peeked = this.peekValue();
+			
+		} else if(scope == JSONReader.EMPTY_DOCUMENT) {
+			
+			this.scopes[this.depth - 1] = JSONReader.NONEMPTY_DOCUMENT;
+			this.peeked = this.peekValue();
+			
+		} else {
+			
+			int character = this.skipWhitespace();
+			
+			if(character != -1) {
+				
+				throw this.syntaxError("Expected the end of the document", character);
+			}
+			
+			this.peeked = Token.END_DOCUMENT;
+		}
+		
+		return this.peeked;
+	}
+	
+	/**
+	 * @return {@code true} if the current object or array has another element, else {@code false}
+	 * @throws IOException if the JSON is malformed or could not be read
+	 * @since 1.2.0
+	 */
+	public boolean hasNext() throws IOException {
+		
+		Token token = this.peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+	
+	/**
+	 * Consumes the start of a JSON object.
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public void beginObject() throws IOException {
+		
+		this.expect(Token.BEGIN_OBJECT);
+		this.push(JSONReader.EMPTY_OBJECT);
+	}
+	
+	/**
+	 * Consumes the end of the current JSON object.
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public void endObject() throws IOException {
+		
+		this.expect(Token.END_OBJECT);
+		this.depth--;
+	}
+	
+	/**
+	 * Consumes the start of a JSON array.
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public void beginArray() throws IOException {
+		
+		this.expect(Token.BEGIN_ARRAY);
+		this.push(JSONReader.EMPTY_ARRAY);
+	}
+	
+	/**
+	 * Consumes the end of the current JSON array.
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public void endArray() throws IOException {
+		
+		this.expect(Token.END_ARRAY);
+		this.depth--;
+	}
+	
+	/**
+	 * @return the name of the next value in the current JSON object
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public String nextName() throws IOException {
+		
+		this.expect(Token.NAME);
+		return this.readString();
+	}
+	
+	/**
+	 * @return the next string value; a number is returned as it was written
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public String nextString() throws IOException {
+		
+		Token token = this.peek();
+		
+		if(token == Token.NUMBER) {
+			
+			this.peeked = null;
+			return this.readLiteral();
+		}
+		
+		this.expect(Token.STRING);
+		return this.readString();
+	}
+	
+	/**
+	 * @return the next number value; a string that contains a number is accepted as well
+	 * @throws IOException if the next token is something else, is no integer or could not be read
+	 * @since 1.2.0
+	 */
+	public long nextLong() throws IOException {
+		
+		String value = this.peek() == Token.STRING ? this.nextString() : null;
+		
+		if(value == null) {
+			
+			this.expect(Token.NUMBER);
+			value = this.readLiteral();
+		}
+		
+		try {
+			
+			return Long.parseLong(value);
+			
+		} catch(NumberFormatException exception) {
+			
+			throw new IOException("Expected an integer but was " + value + " at position " + this.getPosition());
+		}
+	}
+	
+	/**
+	 * @return the next boolean value
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public boolean nextBoolean() throws IOException {
+		
+		this.expect(Token.BOOLEAN);
+		String literal = this.readLiteral();
+		
+		if("true".equals(literal)) {
+			
+			return true;
+			
+		} else if("false".equals(literal)) {
+			
+			return false;
+		}
+		
+		throw new IOException("Expected a boolean but was " + literal + " at position " + this.getPosition());
+	}
+	
+	/**
+	 * Consumes a JSON {@code null}.
+	 * @throws IOException if the next token is something else or could not be read
+	 * @since 1.2.0
+	 */
+	public void nextNull() throws IOException {
+		
+		this.expect(Token.NULL);
+		String literal = this.readLiteral();
+		
+		if(!"null".equals(literal)) {
+			
+			throw new IOException("Expected null but was " + literal + " at position " + this.getPosition());
+		}
+	}
+	
+	/**
+	 * Skips the next value including everything that is nested in it.
+	 * @throws IOException if the JSON is malformed or could not be read
+	 * @since 1.2.0
+	 */
+	public void skipValue() throws IOException {
+		
+		int nesting = 0;
+		
+		do {
+			
+			switch(this.peek()) {
+			
+				case BEGIN_OBJECT: this.beginObject(); nesting++; break;
+				case BEGIN_ARRAY: this.beginArray(); nesting++; break;
+				case END_OBJECT: this.endObject(); nesting--; break;
+				case END_ARRAY: this.endArray(); nesting--; break;
+				case NAME: this.nextName(); break;
+				case STRING: this.nextString(); break;
+				case NUMBER: this.nextString(); break;
+				case BOOLEAN: this.nextBoolean(); break;
+				case NULL: this.nextNull(); break;
+				default: throw new IOException("Unexpected end of the document");
+			}
+			
+		} while(nesting > 0);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		this.reader.close();
+	}
+	
+	private long getPosition() {
+		
+		return this.offset + this.position;
+	}
+	
+	private void push(int scope) {
+		
+		if(this.depth == this.scopes.length) {
+			
+			this.scopes = Arrays.copyOf(this.scopes, this.depth * 2);
+		}
+		
+		this.scopes[this.depth++] = scope;
+	}
+	
+	private void expect(Token expected) throws IOException {
+		
+		Token token = this.peek();
+		
+		if(token != expected) {
+			
+			throw new IOException("Expected " + expected + " but was " + token + " at position " + this.getPosition());
+		}
+		
+		this.peeked = null;
+	}
+	
+	private Token peekValue() throws IOException {
+		
+		int character = this.nextNonWhitespace();
+		
+		switch(character) {
+		
+			case '{': return Token.BEGIN_OBJECT;
+			case '[': return Token.BEGIN_ARRAY;
+			case '"': return Token.STRING;
+			case 't': case 'f': this.position--; return Token.BOOLEAN;
+			case 'n': this.position--; return Token.NULL;
+			default:
+				
+				if(character == '-' || (character >= '0' && character <= '9')) {
+					
+					this.position--;
+					return Token.NUMBER;
+				}
+				
+				throw this.syntaxError("Expected a value", character);
+		}
+	}
+	
+	private String readString() throws IOException {
+		
+		this.builder.setLength(0);
+		
+		while(true) {
+			
+			int character = this.read();
+			
+			if(character == '"') {
+				
+				return this.builder.toString();
+				
+			} else if(character == '\\') {
+				
+				character = this.read();
+				
+				switch(character) {
+				
+					case 'b': this.builder.append('\b'); break;
+					case 'f': this.builder.append('\f'); break;
+					case 'n': this.builder.append('\n'); break;
+					case 'r': this.builder.append('\r'); break;
+					case 't': this.builder.append('\t'); break;
+					case 'u': this.builder.append(this.readUnicodeEscape()); break;
+					case '"': case '\\': case '/': this.builder.append((char)character); break;
+					default: throw this.syntaxError("Invalid escape sequence", character);
+				}
+				
+			} else if(character == -1) {
+				
+				throw new IOException("Unterminated string at position " + this.getPosition());
+				
+			} else {
+				
+				this.builder.append((char)character);
+			}
+		}
+	}
+	
+	private char readUnicodeEscape() throws IOException {
+		
+		int value = 0;
+		
+		for(int index = 0; index < 4; index++) {
+			
+			int digit = Character.digit(this.read(), 16);
+			
+			if(digit == -1) {
+				
+				throw new IOException("Invalid unicode escape sequence at position " + this.getPosition());
+			}
+			
+			value = (value << 4) | digit;
+		}
+		
+		return (char)value;
+	}
+	
+	private String readLiteral() throws IOException {
+		
+		this.builder.setLength(0);
+		
+		while(true) {
+			
+			int character = this.read();
+			
+			if((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9') || character == '-' || character == '+' || character == '.') {
+				
+				this.builder.append((char)character);
+				
+			} else {
+				
+				if(character != -1) {
+					
+					this.position--;
+				}
+				
+				return this.builder.toString();
+			}
+		}
+	}
+	
+	private int nextNonWhitespace() throws IOException {
+		
+		int character = this.skipWhitespace();
+		
+		if(character == -1) {
+			
+			throw new IOException("Unexpected end of the document at position " + this.getPosition());
+		}
+		
+		return character;
+	}
+	
+	private int skipWhitespace() throws IOException {
+		
+		int character = this.read();
+		
+		while(character == ' ' || character == '\t' || character == '\n' || character == '\r') {
+			
+			character = this.read();
+		}
+		
+		return character;
+	}
+	
+	private int read() throws IOException {
+		
+		if(this.position == this.limit) {
+			
+			int read = this.reader.read(this.buffer, 0, this.buffer.length);
+			
+			if(read <= 0) {
+				
+				return -1;
+			}
+			
+			this.offset += this.limit;
+			this.position = 0;
+			this.limit = read;
+		}
+		
+		return this.buffer[this.position++];
+	}
+	
+	private IOException syntaxError(String message, int character) {
+		
+		return new IOException(message + " but was " + (character == -1 ? "the end of the document" : "'" + (char)character + "'") + " at position " + this.getPosition());
+	}
+}
@@ -0,0 +1,345 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes JSON directly on a {@linkplain Writer} without building an object tree first.
+ * Commas and the nesting of objects and arrays are tracked by the writer itself.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class JSONWriter implements AutoCloseable {
+
+	private final Writer writer;
+	private final char[] digits = new char[20];
+	private boolean[] empty = new boolean[16];
+	private int depth;
+	private boolean afterName;
+	
+	/**
+	 * @param writer the writer on which the JSON should be written
+	 * @since 1.2.0
+	 */
+	public JSONWriter(Writer writer) {
+		
+		this.writer = writer;
+	}
+	
+	/**
+	 * Starts a new JSON object.
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void beginObject() throws IOException {
+		
+		this.open('{');
+	}
+	
+	/**
+	 * Ends the current JSON object.
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void endObject() throws IOException {
+		
+		this.close('}');
+	}
+	
+	/**
+	 * Starts a new JSON array.
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void beginArray() throws IOException {
+		
+		this.open('[');
+	}
+	
+	/**
+	 * Ends the current JSON array.
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void endArray() throws IOException {
+		
+		this.close(']');
+	}
+	
+	/**
+	 * Writes the name of the next value in the current JSON object.
+	 * @param name the name
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void name(String name) throws IOException {
+		
+		this.separate();
+		this.string(name);
+		this.writer.write(':');
+		this.afterName = true;
+	}
+	
+	/**
+	 * Writes a string value.
+	 * @param value the value; {@code null} is written as JSON {@code null}
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void value(String value) throws IOException {
+		
+		this.separate();
+		
+		if(value == null) {
+			
+			this.writer.write("null");
+			
+		} else {
+			
+			this.string(value);
+		}
+	}
+	
+	/**
+	 * Writes a number value.
+	 * @param value the value
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void value(long value) throws IOException {
+		
+		this.separate();
+		this.number(value);
+	}
+	
+	/**
+	 * Writes a boolean value.
+	 * @param value the value
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void value(boolean value) throws IOException {
+		
+		this.separate();
+		this.writer.write(value ? "true" : "false");
+	}
+	
+	/**
+	 * Writes a JSON {@code null}.
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void nullValue() throws IOException {
+		
+		this.separate();
+		this.writer.write("null");
+	}
+	
+	/**
+	 * Writes an array of numbers straight from a primitive array.
+	 * @param values the numbers
+	 * @param nullValue the number that should be written as JSON {@code null}
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void value(int[] values, int nullValue) throws IOException {
+		
+		this.separate();
+		this.writer.write('[');
+		
+		for(int index = 0; index < values.length; index++) {
+			
+			if(index > 0) {
+				
+				this.writer.write(',');
+			}
+			
+			if(values[index] == nullValue) {
+				
+				this.writer.write("null");
+				
+			} else {
+				
+				this.number(values[index]);
+			}
+		}
+		
+		this.writer.write(']');
+	}
+	
+	/**
+	 * Writes an array of numbers in which only some positions have a value. All other positions are written as JSON {@code null}.
+	 * @param length the length of the array
+	 * @param positions the positions that have a value in ascending order, starting at {@code 1}
+	 * @param values the value of each position in {@code positions}
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void value(int length, int[] positions, int[] values) throws IOException {
+		
+		this.separate();
+		this.writer.write('[');
+		
+		int next = 0;
+		
+		for(int position = 1; position <= length; position++) {
+			
+			if(position > 1) {
+				
+				this.writer.write(',');
+			}
+			
+			if(next < positions.length && positions[next] == position) {
+				
+				this.number(values[next++]);
+				
+			} else {
+				
+				this.writer.write("null");
+			}
+		}
+		
+		this.writer.write(']');
+	}
+	
+	/**
+	 * Flushes the underlying writer.
+	 * @throws IOException if something went wrong while flushing
+	 * @since 1.2.0
+	 */
+	public void flush() throws IOException {
+		
+		this.writer.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		this.writer.close();
+	}
+	
+	private void open(char bracket) throws IOException {
+		
+		this.separate();
+		this.writer.write(bracket);
+		
+		if(++this.depth == this.empty.length) {
+			
+			this.empty = Arrays.copyOf(this.empty, this.depth * 2);
+		}
+		
+		this.empty[this.depth] = true;
+	}
+	
+	private void close(char bracket) throws IOException {
+		
+		this.writer.write(bracket);
+		this.depth--;
+	}
+	
+	private void separate() throws IOException {
+		
+		if(this.afterName) {
+			
+			this.afterName = false;
+			
+		} else if(this.depth > 0) {
+			
+			if(this.empty[this.depth]) {
+				
+				this.empty[this.depth] = false;
+				
+			} else {
+				
+				this.writer.write(',');
+			}
+		}
+	}
+	
+	private void number(long value) throws IOException {
+		
+		if(value == Long.MIN_VALUE) {
+			
+			this.writer.write(Long.toString(value));
+			return;
+		}
+		
+		long remaining = Math.abs(value);
+		int position = this.digits.length;
+		
+		do {
+			
+			this.digits[--position] = (char)('0' + remaining % 10);
+			remaining /= 10;
+			
+		} while(remaining != 0);
+		
+		if(value < 0) {
+			
+			this.digits[--position] = '-';
+		}
+		
+		this.writer.write(this.digits, position, this.digits.length - position);
+	}
+	
+	private void string(String value) throws IOException {
+		
+		this.writer.write('"');
+		
+		int start = 0;
+		int length = value.length();
+		
+		for(int index = 0; index < length; index++) {
+			
+			char character = value.charAt(index);
+			String escaped = null;
+			
+			switch(character) {
+			
+				case '"': escaped = "\\\""; break;
+				case '\\': escaped = "\\\\"; break;
+				case '\n': escaped = "\\n"; break;
+				case '\r': escaped = "\\r"; break;
+				case '\t': escaped = "\\t"; break;
+				case '\b': escaped = "\\b"; break;
+				case '\f': escaped = "\\f"; break;
+				default: escaped = character < 0x20 ? String.format("\\u%04x", (int)character) : null;
+			}
+			
+			if(escaped != null) {
+				
+				this.writer.write(value, start, index - start);
+				this.writer.write(escaped);
+				start = index + 1;
+			}
+		}
+		
+		this.writer.write(value, start, length - start);
+		this.writer.write('"');
+	}
+}
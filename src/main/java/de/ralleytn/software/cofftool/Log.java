@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes the console output of the program.
+ * Messages on the levels {@linkplain Level#NORMAL} and {@linkplain Level#VERBOSE} are queued and written in batches by a background thread,
+ * so the threads that create them never wait for the console. Warnings and errors are always written.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class Log {
+
+	/**
+	 * The amount of output that is written.
+	 * @since 1.2.0
+	 */
+	public enum Level {
+		
+		/**
+		 * Only warnings and errors.
+		 * @since 1.2.0
+		 */
+		QUIET,
+		
+		/**
+		 * Warnings, errors and the progress and results of the run.
+		 * @since 1.2.0
+		 */
+		NORMAL,
+		
+		/**
+		 * Everything, including a line for every source file.
+		 * @since 1.2.0
+		 */
+		VERBOSE;
+	}
+	
+	// LIMITS THE MEMORY THAT IS USED BY MESSAGES THAT WAIT TO BE WRITTEN
+	private static final int CAPACITY = 65536;
+	private static final BlockingQueue<Object> QUEUE = new LinkedBlockingQueue<>(Log.CAPACITY);
+	private static volatile Level level = Level.NORMAL;
+	
+	static {
+		
+		Thread sink = new Thread(Log::drain, "cofftool-log");
+		sink.setDaemon(true);
+		sink.start();
+	}
+	
+	private Log() {}
+	
+	/**
+	 * @param level the amount of output that should be written from now on
+	 * @since 1.2.0
+	 */
+	public static final void setLevel(Level level) {
+		
+		Log.level = level;
+	}
+	
+	/**
+	 * @param level the level
+	 * @return {@code true} if messages on the given level are written, else {@code false}
+	 * @since 1.2.0
+	 */
+	public static final boolean isEnabled(Level level) {
+		
+		return level.compareTo(Log.level) <= 0;
+	}
+	
+	/**
+	 * Writes an information about the progress or the results of the run.
+	 * @param message the message
+	 * @since 1.2.0
+	 */
+	public static final void info(String message) {
+		
+		if(Log.isEnabled(Level.NORMAL)) {
+			
+			Log.enqueue(Log.format("[INFO]", message));
+		}
+	}
+	
+	/**
+	 * Writes a detail that is only of interest when something has to be analyzed, like a line for every source file.
+	 * @param message the message
+	 * @since 1.2.0
+	 */
+	public static final void verbose(String message) {
+		
+		if(Log.isEnabled(Level.VERBOSE)) {
+			
+			Log.enqueue(Log.format("[INFO]", message));
+		}
+	}
+	
+	/**
+	 * Writes a warning. Warnings are written on every level.
+	 * @param message the message
+	 * @since 1.2.0
+	 */
+	public static final void warning(String message) {
+		
+		Log.enqueue(Log.format("[WARNING]", message));
+	}
+	
+	/**
+	 * Writes an error on the error stream. All queued messages are written before it.
+	 * @param message the message
+	 * @since 1.2.0
+	 */
+	public static final void error(String message) {
+		
+		Log.flush();
+		System.err.println(Log.format("[ERROR]", message));
+	}
+	
+	/**
+	 * Waits until all queued messages were written.
+	 * Has to be called before something is written directly on the console, for example before asking the user for an input.
+	 * @since 1.2.0
+	 */
+	public static final void flush() {
+		
+		CountDownLatch written = new CountDownLatch(1);
+		Log.enqueue(written);
+		
+		try {
+			
+			written.await();
+			
+		} catch(InterruptedException exception) {
+			
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static final String format(String prefix, String message) {
+		
+		return message.isEmpty() ? prefix : prefix + " " + message;
+	}
+	
+	private static final void enqueue(Object entry) {
+		
+		try {
+			
+			Log.QUEUE.put(entry);
+			
+		} catch(InterruptedException exception) {
+			
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static final void drain() {
+		
+		List<Object> batch = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
+		
+		while(true) {
+			
+			try {
+				
+				batch.add(Log.QUEUE.take());
+				
+			} catch(InterruptedException exception) {
+				
+				return;
+			}
+			
+			Log.QUEUE.drainTo(batch);
+			
+			for(Object entry : batch) {
+				
+				if(entry instanceof CountDownLatch) {
+					
+					Log.write(builder);
+					((CountDownLatch)entry).countDown();
+					
+				} else {
+					
+					builder.append(entry).append(System.lineSeparator());
+				}
+			}
+			
+			Log.write(builder);
+			batch.clear();
+		}
+	}
+	
+	private static final void write(StringBuilder builder) {
+		
+		if(builder.length() > 0) {
+			
+			// ONE WRITE AND ONE FLUSH FOR THE WHOLE BATCH
+			System.out.print(builder);
+			System.out.flush();
+			builder.setLength(0);
+		}
+	}
+}
@@ -0,0 +1,359 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the time, the processed files and the read and written bytes of every stage of a run.
+ * All methods can be called concurrently. The time of a stage is the wall-clock time in which at least one thread was in the stage.
+ * Its CPU time is the sum of the time on all threads, so it is larger than the time if the stage runs on several threads at once.
+ * The stages that are run for every source file alternate with each other, so they only have a CPU time.
+ * <p>The pools of the heap reach their peaks at different times, so the peak heap usage is sampled for the whole heap by a background thread.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class Metrics {
+
+	/**
+	 * The stages of a run.
+	 * @since 1.2.0
+	 */
+	public enum Stage {
+		
+		TRAVIS_LOOKUP("Travis lookup", false),
+		SOURCE_COLLECTION("Source collection", false),
+		XML_PARSE("XML parse", false),
+		MATCHING("Matching", true),
+		DIGESTING("Digesting", true),
+		JSON_WRITE("JSON write", true),
+		UPLOAD("Upload", false);
+		
+		private final String displayName;
+		private final boolean perFile;
+		
+		private Stage(String displayName, boolean perFile) {
+			
+			this.displayName = displayName;
+			this.perFile = perFile;
+		}
+		
+		/**
+		 * @return {@code true} if the stage is run once for every source file, alternating with the other stages of this kind, else {@code false}
+		 * @since 1.2.0
+		 */
+		public boolean isPerFile() {
+			
+			return this.perFile;
+		}
+		
+		/**
+		 * @return the name of the stage that is shown to the user
+		 * @since 1.2.0
+		 */
+		public String getDisplayName() {
+			
+			return this.displayName;
+		}
+	}
+	
+	private static final long SAMPLE_INTERVAL = 10;
+	private static final LongAccumulator PEAK_HEAP = new LongAccumulator(Long::max, 0);
+	
+	static {
+		
+		Thread sampler = new Thread(Metrics::sampleHeap, "cofftool-heap");
+		sampler.setDaemon(true);
+		sampler.start();
+	}
+	
+	private final long start = System.nanoTime();
+	private final List<List<long[]>> intervals = Metrics.createIntervals();
+	private final LongAdder[] cpuNanos = Metrics.createCounters();
+	private final LongAdder[] files = Metrics.createCounters();
+	private final LongAdder[] bytesRead = Metrics.createCounters();
+	private final LongAdder[] bytesWritten = Metrics.createCounters();
+	
+	/**
+	 * @return the current time in nanoseconds that has to be passed to {@linkplain #stop(Stage, long)}
+	 * @since 1.2.0
+	 */
+	public long start() {
+		
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Adds the time since the given start time to a stage.
+	 * @param stage the stage
+	 * @param start the value that was returned by {@linkplain #start()}
+	 * @since 1.2.0
+	 */
+	public void stop(Stage stage, long start) {
+		
+		long stop = System.nanoTime();
+		int index = stage.ordinal();
+		this.cpuNanos[index].add(stop - start);
+		
+		// A STAGE THAT IS NOT RUN PER FILE IS ONLY STOPPED A FEW TIMES, SO KEEPING EVERY INTERVAL IS CHEAP
+		if(!stage.isPerFile()) {
+			
+			List<long[]> stageIntervals = this.intervals.get(index);
+			
+			synchronized(stageIntervals) {
+				
+				stageIntervals.add(new long[] {start, stop});
+			}
+		}
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @return the wall-clock time in nanoseconds in which at least one thread was in the stage; {@code -1} if the stage is run per file
+	 * @since 1.2.0
+	 */
+	public long getTime(Stage stage) {
+		
+		if(stage.isPerFile()) {
+			
+			return -1;
+		}
+		
+		List<long[]> stageIntervals = this.intervals.get(stage.ordinal());
+		long[][] sorted = null;
+		
+		synchronized(stageIntervals) {
+			
+			sorted = stageIntervals.toArray(new long[0][]);
+		}
+		
+		// OVERLAPPING INTERVALS, FOR EXAMPLE OF MODULES IN A BATCH RUN, ARE ONLY COUNTED ONCE
+		Arrays.sort(sorted, (first, second) -> Long.compare(first[0], second[0]));
+		long time = 0;
+		long end = Long.MIN_VALUE;
+		
+		for(long[] interval : sorted) {
+			
+			if(interval[0] >= end) {
+				
+				time += interval[1] - interval[0];
+				end = interval[1];
+				
+			} else if(interval[1] > end) {
+				
+				time += interval[1] - end;
+				end = interval[1];
+			}
+		}
+		
+		return time;
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @return the sum of the time in nanoseconds that all threads spent in the stage
+	 * @since 1.2.0
+	 */
+	public long getCPUTime(Stage stage) {
+		
+		return this.cpuNanos[stage.ordinal()].sum();
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @param count the number of files that were processed by the stage
+	 * @since 1.2.0
+	 */
+	public void addFiles(Stage stage, long count) {
+		
+		this.files[stage.ordinal()].add(count);
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @param count the number of bytes that were read by the stage
+	 * @since 1.2.0
+	 */
+	public void addBytesRead(Stage stage, long count) {
+		
+		this.bytesRead[stage.ordinal()].add(count);
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @param count the number of bytes that were written by the stage
+	 * @since 1.2.0
+	 */
+	public void addBytesWritten(Stage stage, long count) {
+		
+		this.bytesWritten[stage.ordinal()].add(count);
+	}
+	
+	/**
+	 * @return the highest amount of heap memory in bytes that was used since the metrics were first created; sampled every 10 ms
+	 * @since 1.2.0
+	 */
+	public long getPeakHeap() {
+		
+		Metrics.PEAK_HEAP.accumulate(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+		return Metrics.PEAK_HEAP.get();
+	}
+	
+	/**
+	 * Prints a table with the metrics of every stage.
+	 * The table is printed directly and not through {@linkplain Log}, so it is printed on every log level. The queued log messages are written before it.
+	 * @param out the stream on which the table is printed
+	 * @since 1.2.0
+	 */
+	public void print(PrintStream out) {
+		
+		Log.flush();
+		out.println();
+		out.println("Metrics");
+		out.println("----");
+		out.println(String.format("%-18s %12s %12s %10s %16s %16s", "Stage", "Time (ms)", "CPU (ms)", "Files", "Read (bytes)", "Written (bytes)"));
+		
+		for(Stage stage : Stage.values()) {
+			
+			int index = stage.ordinal();
+			String time = stage.isPerFile() ? "-" : String.format("%.1f", this.getTime(stage) / 1000000.0);
+			out.println(String.format("%-18s %12s %12.1f %10d %16d %16d", stage.getDisplayName(), time, this.getCPUTime(stage) / 1000000.0, this.files[index].sum(), this.bytesRead[index].sum(), this.bytesWritten[index].sum()));
+		}
+		
+		out.println("----");
+		out.println(String.format("Total time: %.1f ms, Peak heap (sampled): %d bytes", (System.nanoTime() - this.start) / 1000000.0, this.getPeakHeap()));
+		out.println();
+		out.flush();
+	}
+	
+	/**
+	 * Writes the metrics as JSON, so they can be compared between runs.
+	 * @param file the file in which the metrics should be written
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void write(File file) throws IOException {
+		
+		Log.info("Create " + file.getName());
+		
+		try(JSONWriter writer = new JSONWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))) {
+			
+			writer.beginObject();
+			writer.name("total_time_ns");
+			writer.value(System.nanoTime() - this.start);
+			writer.name("peak_heap_bytes");
+			writer.value(this.getPeakHeap());
+			writer.name("stages");
+			writer.beginArray();
+			
+			for(Stage stage : Stage.values()) {
+				
+				int index = stage.ordinal();
+				writer.beginObject();
+				writer.name("name");
+				writer.value(stage.name().toLowerCase());
+				writer.name("time_ns");
+				
+				if(stage.isPerFile()) {
+					
+					writer.nullValue();
+					
+				} else {
+					
+					writer.value(this.getTime(stage));
+				}
+				
+				writer.name("cpu_time_ns");
+				writer.value(this.getCPUTime(stage));
+				writer.name("files");
+				writer.value(this.files[index].sum());
+				writer.name("bytes_read");
+				writer.value(this.bytesRead[index].sum());
+				writer.name("bytes_written");
+				writer.value(this.bytesWritten[index].sum());
+				writer.endObject();
+			}
+			
+			writer.endArray();
+			writer.endObject();
+		}
+	}
+	
+	private static final void sampleHeap() {
+		
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		
+		while(true) {
+			
+			Metrics.PEAK_HEAP.accumulate(memory.getHeapMemoryUsage().getUsed());
+			
+			try {
+				
+				Thread.sleep(Metrics.SAMPLE_INTERVAL);
+				
+			} catch(InterruptedException exception) {
+				
+				return;
+			}
+		}
+	}
+	
+	private static final List<List<long[]>> createIntervals() {
+		
+		List<List<long[]>> intervals = new ArrayList<>();
+		
+		for(int index = 0; index < Stage.values().length; index++) {
+			
+			intervals.add(new ArrayList<>());
+		}
+		
+		return intervals;
+	}
+	
+	private static final LongAdder[] createCounters() {
+		
+		LongAdder[] counters = new LongAdder[Stage.values().length];
+		
+		for(int index = 0; index < counters.length; index++) {
+			
+			counters[index] = new LongAdder();
+		}
+		
+		return counters;
+	}
+}
@@ -23,12 +23,15 @@
  */
 package de.ralleytn.software.cofftool;
 
-import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Writes a multipart form on the output stream of a HTTP request.
@@ -38,10 +41,14 @@ import java.nio.charset.StandardCharsets;
  */
 public class MultipartWriter implements AutoCloseable {
 
-	private BufferedWriter writer;
+	private static final int BUFFER_SIZE = 65536;
+	
+	private OutputStream out;
 	private String boundary;
+	private long bytesWritten;
 	
 	/**
+	 * The request body is sent in chunks while it is written, so it is never buffered as a whole.
 	 * @param connection the connection on which the multipart form should be written
 	 * @throws IOException if something went wrong while creating the writer
 	 * @since 1.2.0
@@ -50,11 +57,28 @@ public class MultipartWriter implements AutoCloseable {
 		
 		this.boundary = Util.createMD5(Util.getTimestampAsByteArray());
 		connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + this.boundary);
-		this.writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+		connection.setChunkedStreamingMode(MultipartWriter.BUFFER_SIZE);
+		this.out = new FilterOutputStream(connection.getOutputStream()) {
+			
+			@Override
+			public void write(int value) throws IOException {
+				
+				this.out.write(value);
+				MultipartWriter.this.bytesWritten++;
+			}
+			
+			@Override
+			public void write(byte[] buffer, int offset, int length) throws IOException {
+				
+				this.out.write(buffer, offset, length);
+				MultipartWriter.this.bytesWritten += length;
+			}
+		};
 	}
 	
 	/**
 	 * Writes a file on the output stream.
+	 * The content of the file is copied to the output stream through a fixed buffer without decoding it.
 	 * @param name the parameter name
 	 * @param file the file
 	 * @throws IOException if something went wrong while writing
@@ -62,25 +86,93 @@ public class MultipartWriter implements AutoCloseable {
 	 */
 	public void writeFile(String name, File file) throws IOException {
 		
-		this.writer.write("--");
-		this.writer.write(this.boundary);
-		this.writer.write("\r\n");
-		this.writer.write("Content-Disposition: form-data; name=\"");
-		this.writer.write(name);
-		this.writer.write("\"; filename=\"");
-		this.writer.write(file.getName());
-		this.writer.write("\"\r\nContent-Type: application/json; charset=UTF-8\r\n");
-		this.writer.write("Content-Transfer-Encoding: binary\r\n\r\n");
-		this.writer.write(new String(Util.readFile(file), StandardCharsets.UTF_8));
-		this.writer.write("\r\n");
+		this.writePartHeader(name, file.getName(), "application/json; charset=UTF-8");
+		this.copy(file, this.out);
+		this.write("\r\n");
+	}
+	
+	/**
+	 * Writes a file on the output stream and compresses it with GZIP on the fly.
+	 * The compressed data is never held in memory or on disk as a whole. The file name gets the extension {@code .gz}.
+	 * @param name the parameter name
+	 * @param file the file
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void writeCompressedFile(String name, File file) throws IOException {
+		
+		this.writePartHeader(name, file.getName() + ".gz", "application/gzip");
+		
+		// THE GZIP STREAM MUST NOT CLOSE THE CONNECTION STREAM, BECAUSE THE CLOSING BOUNDARY IS STILL MISSING
+		OutputStream unclosable = new FilterOutputStream(this.out) {
+			
+			@Override
+			public void write(byte[] buffer, int offset, int length) throws IOException {
+				
+				this.out.write(buffer, offset, length);
+			}
+			
+			@Override
+			public void close() throws IOException {
+				
+				this.flush();
+			}
+		};
+		
+		try(GZIPOutputStream gzip = new GZIPOutputStream(unclosable, MultipartWriter.BUFFER_SIZE)) {
+			
+			this.copy(file, gzip);
+		}
+		
+		this.write("\r\n");
+	}
+	
+	/**
+	 * @return the number of bytes that were written on the connection so far
+	 * @since 1.2.0
+	 */
+	public long getBytesWritten() {
+		
+		return this.bytesWritten;
 	}
 	
 	@Override
 	public void close() throws IOException {
 		
-		this.writer.write("--");
-		this.writer.write(this.boundary);
-		this.writer.write("--");
-		this.writer.close();
+		try {
+			
+			this.write("--" + this.boundary + "--");
+			
+		} finally {
+			
+			this.out.close();
+		}
+	}
+	
+	private void writePartHeader(String name, String fileName, String contentType) throws IOException {
+		
+		this.write("--" + this.boundary + "\r\n");
+		this.write("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n");
+		this.write("Content-Type: " + contentType + "\r\n");
+		this.write("Content-Transfer-Encoding: binary\r\n\r\n");
+	}
+	
+	private void copy(File file, OutputStream target) throws IOException {
+		
+		try(InputStream in = new FileInputStream(file)) {
+			
+			int read = 0;
+			byte[] buffer = new byte[MultipartWriter.BUFFER_SIZE];
+			
+			while((read = in.read(buffer)) != -1) {
+				
+				target.write(buffer, 0, read);
+			}
+		}
+	}
+	
+	private void write(String text) throws IOException {
+		
+		this.out.write(text.getBytes(StandardCharsets.UTF_8));
 	}
 }
@@ -23,30 +23,22 @@
  */
 package de.ralleytn.software.cofftool;
 
-import java.io.BufferedWriter;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.regex.PatternSyntaxException;
 
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import de.ralleytn.simple.json.JSONArray;
-import de.ralleytn.simple.json.JSONObject;
-import de.ralleytn.simple.json.JSONParseException;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Just a small command line tool to submit coverage data that was collected by Eclipse to Coveralls.
- * A {@code report.xml} and a {@code report.dtd} file should be in the same directory as this program.
+ * A {@code report.xml} file should be in the same directory as this program.
  * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
  * @version 1.2.0
  * @since 1.0.0
@@ -55,11 +47,31 @@ public final class Program {
 
 	private static final File REPORT_XML = new File("report.xml");
 	private static final File REPORT_JSON = new File("coveralls.json");
+	private static final File CACHE_DIRECTORY = new File(".cofftool-cache");
+	private static final File DIFF_JSON = new File("coverage-diff.json");
+	
+	/**
+	 * The exit code if the report was created and, if requested, submitted.
+	 * @since 1.2.0
+	 */
+	public static final int EXIT_SUCCESS = 0;
+	
+	/**
+	 * The exit code if the report could not be created or submitted.
+	 * @since 1.2.0
+	 */
+	public static final int EXIT_FAILURE = 1;
+	
+	/**
+	 * The exit code if the arguments are invalid.
+	 * @since 1.2.0
+	 */
+	public static final int EXIT_USAGE = 2;
 	
 	private Program() {}
 	
 	/**
-	 * Entry point for the program.
+	 * Entry point for the program. Exits with {@linkplain #EXIT_SUCCESS}, {@linkplain #EXIT_FAILURE} or {@linkplain #EXIT_USAGE}.
 	 * @param args	the arguments:
 	 * 				<p><table border=1>
 	 * 					<tr>
@@ -79,216 +91,394 @@ public final class Program {
 	 * 						<td>the repository: <code>{GitHub Name}/{GitHub Repo}</code></td>
 	 * 					</tr>
 	 * 				</table></p>
+	 * 				<p>In batch mode only the token and the repository are given.
+	 * 				Instead of the parameters the options {@code --source}, {@code --token} and {@code --repo} can be used.</p>
+	 * 				<p>Options:</p>
+	 * 				<ul>
+	 * 					<li>{@code --source <dir>} the location of the source code on default package level</li>
+	 * 					<li>{@code --token <token>} your Travis CI access token</li>
+	 * 					<li>{@code --repo <user/repo>} the repository</li>
+	 * 					<li>{@code --output <file>} the file in which the Coveralls report is written (default: {@code coveralls.json})</li>
+	 * 					<li>{@code --snapshot} also writes a binary snapshot of the report next to it ({@code coveralls.bin})</li>
+	 * 					<li>{@code --convert <file>} only converts a snapshot to a Coveralls report or a Coveralls report to a snapshot; the result is written to {@code --output} or next to the file</li>
+	 * 					<li>{@code --diff <file>} compares the report with a baseline report or snapshot and writes the differences to {@code --diff-output}</li>
+	 * 					<li>{@code --current <file>} only compares this report or snapshot with the one given with {@code --diff}</li>
+	 * 					<li>{@code --diff-output <file>} the file in which the differences are written (default: {@code coverage-diff.json})</li>
+	 * 					<li>{@code --changed-since <commit>} only reads the source files that changed since the given commit; the other source files are taken from {@code --previous}</li>
+	 * 					<li>{@code --changed-until <commit>} the commit up to which changes are searched (default: the working tree)</li>
+	 * 					<li>{@code --previous <file>} the Coveralls report or snapshot of the previous run for {@code --changed-since}</li>
+	 * 					<li>{@code --submit} submits the report without asking</li>
+	 * 					<li>{@code --dry-run} creates the report, but never submits it; the token and the repository are optional, without them the service job id is {@code 0}</li>
+	 * 					<li>{@code --threads <n>} the number of threads that process the source files; {@code 0} uses one thread per core (default: 1)</li>
+	 * 					<li>{@code --gzip} compresses the coverage report with GZIP while it is submitted</li>
+	 * 					<li>{@code --no-cache} neither uses nor updates the cache in {@code .cofftool-cache}</li>
+	 * 					<li>{@code --include <glob>} only collects the source files that match the pattern; may be given more than once (default: all {@code .java} files)</li>
+	 * 					<li>{@code --exclude <glob>} skips the files and directories that match the pattern; may be given more than once</li>
+	 * 					<li>{@code --report <file>} the JaCoCo XML report; may be given more than once to merge the reports of several test runs (default: {@code report.xml})</li>
+	 * 					<li>{@code --merge <sum|any>} how the hits of the same line in several reports are combined: {@code sum} adds them, {@code any} counts a line as covered if it is covered in any report (default: sum)</li>
+	 * 					<li>{@code --batch <manifest>} creates the reports of all modules in the manifest in one run; see {@linkplain BatchEntry#readManifest(File)}</li>
+	 * 					<li>{@code --combined <file>} writes the source files of all modules of a batch run into one report, which is then the one that is submitted</li>
+	 * 					<li>{@code --connect-timeout <ms>} the time after which the attempt to connect to an API is aborted (default: 10000)</li>
+	 * 					<li>{@code --read-timeout <ms>} the time after which waiting for the response of an API is aborted (default: 60000)</li>
+	 * 					<li>{@code --retries <n>} how often a failed request is repeated; the submission is only repeated if it provably did not reach Coveralls (default: 3)</li>
+	 * 					<li>{@code --retry-delay <ms>} the delay before the first retry; it doubles for every further retry (default: 1000)</li>
+	 * 					<li>{@code --quiet} only prints warnings and errors</li>
+	 * 					<li>{@code --verbose} also prints a line for every source file</li>
+	 * 					<li>{@code --metrics} prints the time, files and bytes of every stage and the peak heap usage at the end</li>
+	 * 					<li>{@code --metrics-file <file>} writes the same metrics as JSON into the given file</li>
+	 * 				</ul>
 	 * @since 1.0.0
 	 */
 	public static void main(String[] args) {
 
+		int exitCode = Program.run(args);
+		Log.flush();
+		System.exit(exitCode);
+	}
+	
+	/**
+	 * Runs the program.
+	 * @param args the arguments as described in {@linkplain #main(String[])}
+	 * @return the exit code
+	 * @since 1.2.0
+	 */
+	private static final int run(String[] args) {
+		
 		try {
 
-			if(args.length == 3) {
+			Arguments arguments = new Arguments(args, "gzip", "no-cache", "metrics", "quiet", "verbose", "submit", "dry-run", "snapshot");
+			List<String> parameters = arguments.getParameters();
+			int threads = arguments.getIntOption("threads", 1);
+			
+			if(threads <= 0) {
+				
+				threads = Runtime.getRuntime().availableProcessors();
+			}
+			
+			if(arguments.hasSwitch("quiet")) {
+				
+				Log.setLevel(Log.Level.QUIET);
+				
+			} else if(arguments.hasSwitch("verbose")) {
+				
+				Log.setLevel(Log.Level.VERBOSE);
+			}
+			
+			String convert = arguments.getOption("convert", null);
+			
+			if(convert != null) {
+				
+				String target = arguments.getOption("output", null);
+				Snapshots.convert(new File(convert), target != null ? new File(target) : null);
+				return Program.EXIT_SUCCESS;
+			}
+			
+			String baseline = arguments.getOption("diff", null);
+			String current = arguments.getOption("current", null);
+			File diffOutput = new File(arguments.getOption("diff-output", Program.DIFF_JSON.getPath()));
+			
+			if(baseline != null && current != null) {
+				
+				new CoverageDiff(threads).diff(new File(baseline), new File(current), diffOutput);
+				return Program.EXIT_SUCCESS;
+			}
+			
+			String manifest = arguments.getOption("batch", null);
+			int parameterCount = manifest != null ? 2 : 3;
+			
+			if(!parameters.isEmpty() && parameters.size() != parameterCount) {
+				
+				throw new ArgumentException("Invalid number of arguments! Expected " + parameterCount + " parameters or the options --source, --token and --repo");
+			}
+			
+			String source = arguments.getOption("source", manifest == null && !parameters.isEmpty() ? parameters.get(0) : null);
+			String token = arguments.getOption("token", !parameters.isEmpty() ? parameters.get(parameterCount - 2) : null);
+			String repository = arguments.getOption("repo", !parameters.isEmpty() ? parameters.get(parameterCount - 1) : null);
+			File output = new File(arguments.getOption("output", Program.REPORT_JSON.getPath()));
+			String combined = arguments.getOption("combined", null);
+			boolean submit = arguments.hasSwitch("submit");
+			boolean dryRun = arguments.hasSwitch("dry-run");
+			String changedSince = arguments.getOption("changed-since", null);
+			String previous = arguments.getOption("previous", null);
+			
+			if(manifest == null && source == null) {
+				
+				throw new ArgumentException("The source location is missing, use --source <dir>");
 				
-				long serviceJobId = new TravisClient(args[1]).getLatestServiceJobId(args[2]);
-				JSONArray coverageReportData = Program.createCoverageReportData(args[0]);
-				JSONObject object = Program.createCoverageReportObject(serviceJobId, coverageReportData);
-				Program.writeCoverageReportFile(object);
-				Program.askToSendCoverageReport();
+			} else if(!dryRun && (token == null || repository == null)) {
+				
+				throw new ArgumentException("The Travis CI token or the repository is missing, use --token <token> and --repo <user/repo>");
+				
+			} else if(submit && dryRun) {
+				
+				throw new ArgumentException("--submit and --dry-run cannot be used together");
+				
+			} else if(submit && manifest != null && combined == null) {
+				
+				throw new ArgumentException("Only a combined report can be submitted, use --combined <file> to create one");
+				
+			} else if(changedSince != null && (previous == null || manifest != null)) {
+				
+				throw new ArgumentException("--changed-since needs the report of the previous run, use --previous <file>; it cannot be used in batch mode");
+				
+			} else if(previous != null && (Program.isSameFile(new File(previous), output) || Program.isSameFile(new File(previous), Snapshots.getSnapshotFile(output)))) {
+				
+				throw new ArgumentException("The previous report would be overwritten, copy it or use --output <file>");
+			}
+			
+			Metrics metrics = new Metrics();
+			Future<Long> serviceJobId = token != null && repository != null ? Program.lookUpServiceJobId(Program.configure(new TravisClient(token), arguments), repository, metrics) : CompletableFuture.completedFuture(0L);
+			FileTreeWalker walker = Program.createWalker(arguments);
+			boolean useCache = !arguments.hasSwitch("no-cache");
+			CoverageMerger.Mode mode = Program.getMergeMode(arguments.getOption("merge", "sum"));
+			File submission = output;
+			
+			if(manifest != null) {
+				
+				submission = combined != null ? new File(combined) : null;
+				new BatchProcessor(threads, mode, useCache ? Program.CACHE_DIRECTORY : null, walker, metrics).process(BatchEntry.readManifest(new File(manifest)), serviceJobId, submission);
 				
 			} else {
 				
-				System.err.println("Invalid number of arguments!");
+				List<File> reportFiles = new ArrayList<>();
+				
+				for(String reportFile : arguments.getOptions("report")) {
+					
+					reportFiles.add(new File(reportFile));
+				}
+				
+				if(reportFiles.isEmpty()) {
+					
+					reportFiles.add(Program.REPORT_XML);
+				}
+				
+				try(ReportWriter writer = new ReportWriter(output)) {
+					
+					if(arguments.hasSwitch("snapshot")) {
+						
+						writer.setSnapshot(new SnapshotWriter(Snapshots.getSnapshotFile(output)));
+					}
+					
+					if(changedSince != null) {
+						
+						ChangedFiles changes = ChangedFiles.read(changedSince, arguments.getOption("changed-until", null));
+						new CoverageReportGenerator(threads, null, walker, metrics).createCoverageReportData(source, reportFiles, mode, writer, new File(previous), changes);
+						
+					} else {
+						
+						CoverageCache cache = useCache ? new CoverageCache(Program.CACHE_DIRECTORY) : null;
+						new CoverageReportGenerator(threads, cache, walker, metrics).createCoverageReportData(source, reportFiles, mode, writer);
+					}
+					
+					writer.finish(Util.await(serviceJobId));
+				}
+				
+				metrics.addBytesWritten(Metrics.Stage.JSON_WRITE, output.length());
 			}
+			
+			if(baseline != null) {
+				
+				if(submission != null) {
+					
+					// THE SNAPSHOT CAN BE READ WITHOUT PARSING JSON
+					File report = manifest == null && arguments.hasSwitch("snapshot") ? Snapshots.getSnapshotFile(submission) : submission;
+					new CoverageDiff(threads).diff(new File(baseline), report, diffOutput);
+					
+				} else {
+					
+					Log.info("Only a combined report can be compared, use --combined <file> to create one");
+				}
+			}
+			
+			boolean success = true;
+			
+			if(submission == null) {
+				
+				Log.info("Only a combined report can be submitted, use --combined <file> to create one");
+				
+			} else if(dryRun) {
+				
+				Log.info("Dry run, " + submission.getPath() + " is not submitted");
+				
+			} else if(submit || Program.confirmSubmission()) {
+				
+				success = Program.submitCoverageReport(Program.configure(new CoverallsClient(), arguments), submission, arguments.hasSwitch("gzip"), metrics);
+				
+			} else {
+				
+				Log.info("Process will be aborted.");
+			}
+			
+			if(arguments.hasSwitch("metrics")) {
+				
+				metrics.print(System.out);
+			}
+			
+			String metricsFile = arguments.getOption("metrics-file", null);
+			
+			if(metricsFile != null) {
+				
+				metrics.write(new File(metricsFile));
+			}
+			
+			return success ? Program.EXIT_SUCCESS : Program.EXIT_FAILURE;
 
-		} catch(IOException | SAXException | ParserConfigurationException | JSONParseException exception) {
+		} catch(ArgumentException exception) {
+			
+			Log.error(exception.getMessage());
+			return Program.EXIT_USAGE;
+			
+		} catch(IOException | XMLStreamException exception) {
 			
 			Util.printException(exception);
+			return Program.EXIT_FAILURE;
 		}
 	}
 	
 	/**
-	 * Creates the JSON object that will be sent to Coveralls.
-	 * @param serviceJobId the service job id
-	 * @param coverageReportData the coverage report data array
-	 * @return the JSON object
+	 * @param name the name of the merge mode as it was given on the command line
+	 * @return the merge mode
+	 * @throws ArgumentException if there is no merge mode with the given name
 	 * @since 1.2.0
 	 */
-	private static final JSONObject createCoverageReportObject(long serviceJobId, JSONArray coverageReportData) {
+	private static final CoverageMerger.Mode getMergeMode(String name) throws ArgumentException {
 		
-		JSONObject object = new JSONObject();
-		object.put("service_job_id", serviceJobId);
-		object.put("service_name", "travis-ci");
-		object.put("source_files", coverageReportData);
+		for(CoverageMerger.Mode mode : CoverageMerger.Mode.values()) {
+			
+			if(mode.name().equalsIgnoreCase(name)) {
+				
+				return mode;
+			}
+		}
 		
-		return object;
+		throw new ArgumentException("Invalid value for --merge: " + name + " (expected sum or any)");
 	}
 	
 	/**
-	 * Writes the JSON object that should be send to Coveralls in a file.
-	 * @param coverageReport the coverage report object
-	 * @throws IOException if something went wrong while writing
+	 * @param arguments the arguments of the program
+	 * @return a walker that applies the include and exclude patterns
+	 * @throws ArgumentException if a pattern is not a valid glob pattern
 	 * @since 1.2.0
 	 */
-	private static final void writeCoverageReportFile(JSONObject coverageReport) throws IOException {
+	private static final FileTreeWalker createWalker(Arguments arguments) throws ArgumentException {
 		
-		System.out.println("[INFO] Create " + Program.REPORT_JSON.getName());
-		
-		try(BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(Program.REPORT_JSON)))) {
+		try {
+			
+			return new FileTreeWalker(arguments.getOptions("include"), arguments.getOptions("exclude"));
 			
-			coverageReport.write(writer);
+		} catch(PatternSyntaxException exception) {
+			
+			throw new ArgumentException("Invalid pattern for --include or --exclude: " + exception.getMessage());
 		}
 	}
 	
 	/**
-	 * Asks the user to type in 'submit' before sending the report to Coveralls
-	 * @throws IOException if something went wrong while sending the report
+	 * Applies the timeout and retry options to a client.
+	 * @param client the client
+	 * @param arguments the arguments of the program
+	 * @param <T> the type of the client
+	 * @return the given client
+	 * @throws ArgumentException if a timeout or retry option is not a number
 	 * @since 1.2.0
 	 */
-	private static final void askToSendCoverageReport() throws IOException {
+	private static final <T extends Client> T configure(T client, Arguments arguments) throws ArgumentException {
 		
-		System.out.println();
-		System.out.print("Do you want to submit the coverage report? If yes, type 'submit': ");
-		
-		@SuppressWarnings("resource")
-		String confirmation = new Scanner(System.in).nextLine();
-		
-		if("submit".equalsIgnoreCase(confirmation)) {
-			
-			boolean success = new CoverallsClient().submitCoverageReport(Program.REPORT_JSON);
-			
-			if(success) {
-				
-				System.out.println("[INFO] Sucessfully submitted the coverage report to Coveralls.");
-				
-			} else {
-				
-				System.err.println("[ERROR] Failed to submit the coverage report to Coveralls!");
-			}
-		
-		} else {
-			
-			System.out.println("Process will be aborted.");
-		}
+		client.setTimeouts(arguments.getIntOption("connect-timeout", 10000), arguments.getIntOption("read-timeout", 60000));
+		client.setRetries(arguments.getIntOption("retries", 3), arguments.getIntOption("retry-delay", 1000));
+		return client;
 	}
 	
 	/**
-	 * Creates the {@linkplain JSONArray} with the coverage data that will be send to Coveralls based on the {@code report.xml} file that should be in
-	 * the same directory as this program.
-	 * @param sourceLocation the location of the source files on default package level
-	 * @return the created {@linkplain JSONArray}
-	 * @throws SAXException if the XML of the {@code report.xml} file is invalid
-	 * @throws IOException if some files could not be read
-	 * @throws ParserConfigurationException if the XML of the {@code report.xml} file is invalid
-	 * @since 1.0.0
+	 * Starts the lookup of the latest service job id in the background, so the request to Travis CI overlaps with the creation of the report.
+	 * The thread is a daemon, so a failed run does not wait for the request.
+	 * @param client the client for the Travis CI API
+	 * @param repository the repository (User/Repo)
+	 * @param metrics the metrics to which the lookup is added
+	 * @return the {@linkplain Future} of the service job id
+	 * @since 1.2.0
 	 */
-	private static final JSONArray createCoverageReportData(String sourceLocation) throws SAXException, IOException, ParserConfigurationException {
-		
-		JSONArray sourceFiles = new JSONArray();
-		List<File> relevantSourceFiles = Program.collectSourceFiles(new File(sourceLocation));
-		Document document = Util.parseXML(Program.REPORT_XML);
-		NodeList nodes = document.getElementsByTagName("sourcefile");
-		
-		System.out.println("[INFO] Create coverage report...");
-		System.out.println("[INFO]");
-		System.out.println("[INFO] ----");
+	private static final Future<Long> lookUpServiceJobId(TravisClient client, String repository, Metrics metrics) {
 		
-		int sumLines = 0;
-		int sumCoverred = 0;
-		int sumMissed = 0;
-		
-		for(File sourceFile : relevantSourceFiles) {
-			
-			Node node = Util.getNodeForSourceFile(nodes, sourceLocation, sourceFile);
-			int lines = Util.getLineCount(sourceFile);
-			sumLines += lines;
-			Integer[] coverage = new Integer[lines];
-			String fullName = Util.getFullName(sourceLocation, sourceFile);
-			int coverred = 0;
-			int missed = 0;
+		FutureTask<Long> lookup = new FutureTask<>(() -> {
 			
-			if(node != null) {
-				
-				NodeList childs = node.getChildNodes();
-				
-				for(int index = 0; index < childs.getLength(); index++) {
-					
-					Node child = childs.item(index);
-					
-					if(child.getNodeName().equals("line")) {
-
-						NamedNodeMap attributes = child.getAttributes();
-						int line = Integer.parseInt(attributes.getNamedItem("nr").getNodeValue());
-						int covered = Integer.parseInt(attributes.getNamedItem("ci").getNodeValue());
-						
-						if(covered > 0) {
-							
-							coverred++;
-							
-						} else {
-							
-							missed++;
-						}
-						
-						coverage[line - 1] = covered;
-					}
-				}
-				
-				sumCoverred += coverred;
-				sumMissed += missed;
-			}
-
-			System.out.println("[INFO] " + fullName + " - Total: " + lines + ", Relevant: " + (coverred + missed) + ", Covered: " + coverred + ", Missed: " + missed);
-			sourceFiles.add(Program.createCoverageReportDataElement(coverage, sourceLocation, sourceFile));
-		}
+			long start = metrics.start();
+			long serviceJobId = client.getLatestServiceJobId(repository);
+			metrics.stop(Metrics.Stage.TRAVIS_LOOKUP, start);
+			return serviceJobId;
+		});
 		
-		System.out.println("[INFO] All Files - Total: " + sumLines + ", Relevant: " + (sumCoverred + sumMissed) + ", Covered: " + sumCoverred + ", Missed: " + sumMissed);
-		System.out.println("[INFO] ----");
-		System.out.println("[INFO]");
+		Thread thread = new Thread(lookup, "travis-lookup");
+		thread.setDaemon(true);
+		thread.start();
 		
-		return sourceFiles;
+		return lookup;
 	}
 	
 	/**
-	 * Creates an element in the coverage report data array.
-	 * @param coverage the coverage data
-	 * @param sourceFile the source file
-	 * @return a JSON object that should be part of the coverage report data array
-	 * @throws IOException if something went wrong while reading the source file for the MD5 hash
+	 * @param first a file
+	 * @param second another file
+	 * @return {@code true} if both refer to the same file, else {@code false}
+	 * @throws IOException if a path could not be resolved
 	 * @since 1.2.0
 	 */
-	private static final JSONObject createCoverageReportDataElement(Integer[] coverage, String sourceLocation, File sourceFile) throws IOException {
+	private static final boolean isSameFile(File first, File second) throws IOException {
 		
-		JSONObject object = new JSONObject();
-		object.put("source_digest", Util.createMD5(Util.readFile(sourceFile)));
-		object.put("name", "src/main/java/" + Util.getFullName(sourceLocation, sourceFile));
-		object.put("coverage", new JSONArray(coverage));
-		
-		return object;
+		return first.getCanonicalFile().equals(second.getCanonicalFile());
 	}
 	
 	/**
-	 * Searches for all source files. (except the module-info.java)
-	 * @param sourceFolder the location of the source files on default package level
-	 * @return a list with the relevant source files
-	 * @since 1.0.0
+	 * Asks the user to type in 'submit' before sending the report to Coveralls.
+	 * If the input ends without an answer, for example because it is not connected to a terminal, the report is not submitted.
+	 * @return {@code true} if the user confirmed the submission, else {@code false}
+	 * @throws IOException if the input could not be read
+	 * @since 1.2.0
 	 */
-	private static final List<File> collectSourceFiles(File sourceFolder) {
+	private static final boolean confirmSubmission() throws IOException {
+		
+		Log.flush();
+		System.out.println();
+		System.out.print("Do you want to submit the coverage report? If yes, type 'submit': ");
 		
-		System.out.println("[INFO] Collect project source files...");
-		System.out.println("[INFO]");
-		System.out.println("[INFO] ----");
+		// THE INPUT STREAM MUST NOT BE CLOSED
+		String confirmation = new BufferedReader(new InputStreamReader(System.in)).readLine();
 		
-		List<File> sourceFiles = new ArrayList<>();
-		Util.crawlThroughFileTree(sourceFolder, file -> {
+		if(confirmation == null) {
 			
-			if(file.isFile() && file.getName().toLowerCase().endsWith(".java") && !file.getName().equals("module-info.java")) {
-				
-				System.out.println("[INFO] Collect " + file.getAbsolutePath());
-				sourceFiles.add(file);
-			}
-		});
+			System.out.println();
+			Log.info("No answer, use --submit to submit the report without asking");
+		}
 		
-		System.out.println("[INFO] ----");
-		System.out.println("[INFO]");
+		return "submit".equalsIgnoreCase(confirmation);
+	}
+	
+	/**
+	 * Sends the report to Coveralls.
+	 * @param client the client for the Coveralls API
+	 * @param report the report that should be submitted
+	 * @param compress {@code true} if the report should be compressed with GZIP while it is sent
+	 * @param metrics the metrics to which the upload is added
+	 * @return {@code true} if the report was submitted, else {@code false}
+	 * @throws IOException if something went wrong while sending the report
+	 * @since 1.2.0
+	 */
+	private static final boolean submitCoverageReport(CoverallsClient client, File report, boolean compress, Metrics metrics) throws IOException {
+		
+		long start = metrics.start();
+		boolean success = client.submitCoverageReport(report, compress);
+		metrics.stop(Metrics.Stage.UPLOAD, start);
+		metrics.addFiles(Metrics.Stage.UPLOAD, 1);
+		metrics.addBytesRead(Metrics.Stage.UPLOAD, report.length());
+		metrics.addBytesWritten(Metrics.Stage.UPLOAD, client.getBytesSent());
+		
+		if(success) {
+			
+			Log.info("Sucessfully submitted the coverage report to Coveralls.");
+			
+		} else {
+			
+			Log.error("Failed to submit the coverage report to Coveralls!");
+		}
 		
-		return sourceFiles;
+		return success;
 	}
 }
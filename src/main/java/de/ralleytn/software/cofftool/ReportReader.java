@@ -0,0 +1,444 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a JaCoCo XML report in a single pass without building a DOM.
+ * The coverage of every {@code sourcefile} element is handed to a callback as soon as the element was closed,
+ * so only the coverage of one source file is held by the reader at a time.
+ * <p>A large report can also be memory mapped, split at its {@code package} elements and parsed by several threads,
+ * see {@linkplain #read(File, Consumer, ExecutorService, int)}.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReportReader {
+
+	/**
+	 * The minimum size of a chunk in bytes. Smaller reports are parsed by a single thread.
+	 * @since 1.2.0
+	 */
+	public static final int MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+	
+	private static final byte[] PACKAGE_START = "<package".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] PACKAGE_END = "</package>".getBytes(StandardCharsets.US_ASCII);
+	private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+	private final XMLInputFactory factory;
+	
+	/**
+	 * @since 1.2.0
+	 */
+	public ReportReader() {
+		
+		this.factory = XMLInputFactory.newInstance();
+		this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		this.factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+	}
+	
+	/**
+	 * Reads a JaCoCo XML report file.
+	 * @param reportFile the report file
+	 * @param callback the callback function that is called for every {@code sourcefile} element in the report
+	 * @throws IOException if the file could not be read
+	 * @throws XMLStreamException if the XML is invalid
+	 * @since 1.2.0
+	 */
+	public void read(File reportFile, Consumer<SourceFileCoverage> callback) throws IOException, XMLStreamException {
+		
+		Log.info("Parse " + reportFile.getAbsolutePath());
+		
+		try(InputStream in = new BufferedInputStream(new FileInputStream(reportFile))) {
+			
+			this.read(in, callback);
+		}
+	}
+	
+	/**
+	 * Reads a JaCoCo XML report file with several threads.
+	 * The file is memory mapped and split into chunks that start with a {@code package} element. Every chunk is parsed on its own by the executor.
+	 * The callback is only called by the current thread and in the order of the report, so it does not have to be thread safe.
+	 * Small reports, reports with {@code group} elements, reports that are not encoded in UTF-8 and reports larger than 2 GB are read by the current thread.
+	 * @param reportFile the report file
+	 * @param callback the callback function that is called for every {@code sourcefile} element in the report
+	 * @param executor the thread pool that parses the chunks or {@code null} if the report should be read by the current thread
+	 * @param threads the number of threads of the executor
+	 * @throws IOException if the file could not be read
+	 * @throws XMLStreamException if the XML is invalid
+	 * @since 1.2.0
+	 */
+	public void read(File reportFile, Consumer<SourceFileCoverage> callback, ExecutorService executor, int threads) throws IOException, XMLStreamException {
+		
+		long size = reportFile.length();
+		
+		if(executor == null || threads <= 1 || size < ReportReader.MIN_CHUNK_SIZE * 2L || size > Integer.MAX_VALUE) {
+			
+			this.read(reportFile, callback);
+			return;
+		}
+		
+		MappedByteBuffer buffer = null;
+		
+		try(FileChannel channel = FileChannel.open(reportFile.toPath(), StandardOpenOption.READ)) {
+			
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		
+		List<Integer> boundaries = ReportReader.split(buffer, (int)Math.min(threads * 2L, size / ReportReader.MIN_CHUNK_SIZE));
+		
+		if(boundaries == null) {
+			
+			Log.verbose("The report cannot be split, it is parsed by a single thread");
+			this.read(reportFile, callback);
+			return;
+		}
+		
+		Log.info("Parse " + reportFile.getAbsolutePath() + " in " + (boundaries.size() - 1) + " chunks");
+		List<Future<List<SourceFileCoverage>>> results = new ArrayList<>();
+		
+		for(int index = 0; index < boundaries.size() - 1; index++) {
+			
+			ByteBuffer chunk = buffer.duplicate();
+			chunk.limit(boundaries.get(index + 1));
+			chunk.position(boundaries.get(index));
+			ByteBuffer slice = chunk.slice();
+			int start = boundaries.get(index);
+			
+			Callable<List<SourceFileCoverage>> task = () -> {
+				
+				List<SourceFileCoverage> coverages = new ArrayList<>();
+				
+				// THE CHUNK ONLY CONTAINS PACKAGES, SO IT NEEDS A ROOT ELEMENT
+				InputStream in = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+					new ByteArrayInputStream("<report>".getBytes(StandardCharsets.US_ASCII)),
+					new ByteBufferInputStream(slice),
+					new ByteArrayInputStream("</report>".getBytes(StandardCharsets.US_ASCII))
+				)));
+				
+				try {
+					
+					new ReportReader().read(in, coverages::add);
+					
+				} catch(XMLStreamException exception) {
+					
+					// THE LOCATION IS RELATIVE TO THE CHUNK
+					throw new IOException("Invalid report " + reportFile.getPath() + " in the chunk that starts at byte " + start, exception);
+				}
+				
+				return coverages;
+			};
+			
+			results.add(executor.submit(task));
+		}
+		
+		for(Future<List<SourceFileCoverage>> result : results) {
+			
+			Util.await(result).forEach(callback);
+		}
+	}
+	
+	/**
+	 * Finds the positions at which a report is split. Every chunk except the last one ends where the next one starts, the last one ends after the last {@code package} element.
+	 * @param buffer the content of the report
+	 * @param chunks the number of chunks that should be created
+	 * @return the start of every chunk followed by the end of the last chunk or {@code null} if the report cannot be split
+	 * @since 1.2.0
+	 */
+	private static final List<Integer> split(ByteBuffer buffer, int chunks) {
+		
+		int first = ReportReader.indexOf(buffer, ReportReader.PACKAGE_START, 0);
+		int last = ReportReader.lastIndexOf(buffer, ReportReader.PACKAGE_END);
+		
+		if(chunks < 2 || first == -1 || last < first) {
+			
+			return null;
+		}
+		
+		byte[] header = new byte[first];
+		buffer.duplicate().get(header);
+		String head = new String(header, StandardCharsets.ISO_8859_1);
+		Matcher encoding = ReportReader.ENCODING.matcher(head);
+		
+		// PACKAGES INSIDE OF GROUPS WOULD BE SPLIT FROM THEIR ENCLOSING ELEMENTS
+		if(head.contains("<group") || (encoding.find() && !"UTF-8".equalsIgnoreCase(encoding.group(1)))) {
+			
+			return null;
+		}
+		
+		int end = last + ReportReader.PACKAGE_END.length;
+		long step = (end - first) / chunks;
+		List<Integer> boundaries = new ArrayList<>();
+		boundaries.add(first);
+		
+		for(int index = 1; index < chunks; index++) {
+			
+			int start = ReportReader.indexOf(buffer, ReportReader.PACKAGE_START, (int)(first + step * index));
+			
+			if(start == -1 || start >= end) {
+				
+				break;
+				
+			} else if(start > boundaries.get(boundaries.size() - 1)) {
+				
+				boundaries.add(start);
+			}
+		}
+		
+		boundaries.add(end);
+		return boundaries.size() > 2 ? boundaries : null;
+	}
+	
+	/**
+	 * Searches for the start tag of a {@code package} element.
+	 * @param buffer the content of the report
+	 * @param pattern the bytes of the tag without the closing bracket
+	 * @param from the index from which on is searched
+	 * @return the index of the tag or {@code -1} if there is none
+	 * @since 1.2.0
+	 */
+	private static final int indexOf(ByteBuffer buffer, byte[] pattern, int from) {
+		
+		int limit = buffer.limit() - pattern.length;
+		
+		for(int index = from; index < limit; index++) {
+			
+			if(ReportReader.matches(buffer, pattern, index)) {
+				
+				byte next = buffer.get(index + pattern.length);
+				
+				// PREVENTS MATCHING AN ELEMENT LIKE <packages>
+				if(next == ' ' || next == '>' || next == '\t' || next == '\r' || next == '\n') {
+					
+					return index;
+				}
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Searches for the last occurrence of a byte sequence.
+	 * @param buffer the content of the report
+	 * @param pattern the byte sequence
+	 * @return the index of the last occurrence or {@code -1} if there is none
+	 * @since 1.2.0
+	 */
+	private static final int lastIndexOf(ByteBuffer buffer, byte[] pattern) {
+		
+		for(int index = buffer.limit() - pattern.length; index >= 0; index--) {
+			
+			if(ReportReader.matches(buffer, pattern, index)) {
+				
+				return index;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @param buffer the content of the report
+	 * @param pattern the byte sequence
+	 * @param index the index in the buffer
+	 * @return {@code true} if the byte sequence is at the given index, else {@code false}
+	 * @since 1.2.0
+	 */
+	private static final boolean matches(ByteBuffer buffer, byte[] pattern, int index) {
+		
+		for(int offset = 0; offset < pattern.length; offset++) {
+			
+			if(buffer.get(index + offset) != pattern[offset]) {
+				
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reads a JaCoCo XML report from a stream.
+	 * @param in the input stream
+	 * @param callback the callback function that is called for every {@code sourcefile} element in the report
+	 * @throws XMLStreamException if the XML is invalid
+	 * @since 1.2.0
+	 */
+	public void read(InputStream in, Consumer<SourceFileCoverage> callback) throws XMLStreamException {
+		
+		XMLStreamReader reader = this.factory.createXMLStreamReader(in);
+		
+		try {
+			
+			String packageName = null;
+			String fileName = null;
+			int[] lineNumbers = new int[256];
+			int[] hits = new int[256];
+			int lineCount = 0;
+			
+			while(reader.hasNext()) {
+				
+				int event = reader.next();
+				
+				if(event == XMLStreamConstants.START_ELEMENT) {
+					
+					String element = reader.getLocalName();
+					
+					if("package".equals(element)) {
+						
+						packageName = reader.getAttributeValue(null, "name");
+						
+					} else if("sourcefile".equals(element)) {
+						
+						fileName = reader.getAttributeValue(null, "name");
+						lineCount = 0;
+						
+					} else if(fileName != null && "line".equals(element)) {
+						
+						if(lineCount == lineNumbers.length) {
+							
+							lineNumbers = Arrays.copyOf(lineNumbers, lineCount * 2);
+							hits = Arrays.copyOf(hits, lineCount * 2);
+						}
+						
+						lineNumbers[lineCount] = ReportReader.getIntAttribute(reader, "nr");
+						hits[lineCount] = ReportReader.getIntAttribute(reader, "ci");
+						lineCount++;
+					}
+					
+				} else if(event == XMLStreamConstants.END_ELEMENT) {
+					
+					String element = reader.getLocalName();
+					
+					if(fileName != null && "sourcefile".equals(element)) {
+						
+						callback.accept(new SourceFileCoverage(packageName, fileName, Arrays.copyOf(lineNumbers, lineCount), Arrays.copyOf(hits, lineCount)));
+						fileName = null;
+						
+					} else if("package".equals(element)) {
+						
+						packageName = null;
+					}
+				}
+			}
+			
+		} finally {
+			
+			reader.close();
+		}
+	}
+	
+	/**
+	 * @param reader the reader that is positioned on a start element
+	 * @param name the name of the attribute
+	 * @return the value of the attribute as an {@code int}
+	 * @throws XMLStreamException if the attribute is missing or not a number; the exception contains the location in the report
+	 * @since 1.2.0
+	 */
+	private static final int getIntAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+		
+		String value = reader.getAttributeValue(null, name);
+		
+		try {
+			
+			return Integer.parseInt(value);
+			
+		} catch(NumberFormatException exception) {
+			
+			throw new XMLStreamException("Invalid value for the attribute " + name + " of the element " + reader.getLocalName() + ": " + value, reader.getLocation());
+		}
+	}
+	
+	/**
+	 * Reads the remaining bytes of a {@linkplain ByteBuffer}.
+	 * @since 1.2.0
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+		
+		private final ByteBuffer buffer;
+		
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			
+			this.buffer = buffer;
+		}
+		
+		@Override
+		public int read() {
+			
+			return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+		}
+		
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			
+			if(length == 0) {
+				
+				return 0;
+				
+			} else if(!this.buffer.hasRemaining()) {
+				
+				return -1;
+			}
+			
+			int count = Math.min(length, this.buffer.remaining());
+			this.buffer.get(bytes, offset, count);
+			return count;
+		}
+		
+		@Override
+		public int available() {
+			
+			return this.buffer.remaining();
+		}
+	}
+}
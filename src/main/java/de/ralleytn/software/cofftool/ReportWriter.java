@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes the coverage report that will be sent to Coveralls as a stream.
+ * Every source file is appended as soon as it was processed. The service job id is written at the end by {@linkplain #finish(long)},
+ * so it does not have to be known before the source files are processed. The memory that is needed does not depend on the size of the report.
+ * <p>A report file is written into a temporary file next to it, which only replaces the file when the writer is closed after {@linkplain #finish(long)}.
+ * If anything fails before, the previous report is kept.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReportWriter implements AutoCloseable {
+
+	/**
+	 * The path of the source files relative to the repository root in a single module Maven project.
+	 * @since 1.2.0
+	 */
+	public static final String DEFAULT_NAME_PREFIX = "src/main/java/";
+	
+	private final JSONWriter writer;
+	private final String namePrefix;
+	private SnapshotWriter snapshot;
+	private File file;
+	private File temporary;
+	private boolean finished;
+	
+	/**
+	 * Creates the report file and begins the {@code source_files} array.
+	 * @param file the report file
+	 * @throws IOException if the file could not be created
+	 * @since 1.2.0
+	 */
+	public ReportWriter(File file) throws IOException {
+		
+		this(file, ReportWriter.DEFAULT_NAME_PREFIX);
+	}
+	
+	/**
+	 * Creates the report file and begins the {@code source_files} array.
+	 * @param file the report file
+	 * @param namePrefix the path that is put in front of the name of every source file, so that it is relative to the repository root
+	 * @throws IOException if the file could not be created
+	 * @since 1.2.0
+	 */
+	public ReportWriter(File file, String namePrefix) throws IOException {
+		
+		this(Util.createTemporaryFile(file), namePrefix, file);
+	}
+	
+	private ReportWriter(File temporary, String namePrefix, File file) throws IOException {
+		
+		this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)), namePrefix);
+		this.file = file;
+		this.temporary = temporary;
+		Log.info("Create " + file.getName());
+	}
+	
+	/**
+	 * Begins the {@code source_files} array on a writer.
+	 * @param writer the writer on which the report should be written
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public ReportWriter(Writer writer) throws IOException {
+		
+		this(writer, ReportWriter.DEFAULT_NAME_PREFIX);
+	}
+	
+	/**
+	 * Begins the {@code source_files} array on a writer.
+	 * @param writer the writer on which the report should be written
+	 * @param namePrefix the path that is put in front of the name of every source file, so that it is relative to the repository root
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public ReportWriter(Writer writer, String namePrefix) throws IOException {
+		
+		this.writer = new JSONWriter(writer);
+		this.namePrefix = namePrefix;
+		this.writer.beginObject();
+		this.writer.name("source_files");
+		this.writer.beginArray();
+	}
+	
+	/**
+	 * Also writes every source file into a snapshot. The snapshot is finished and closed together with this writer.
+	 * @param snapshot the snapshot writer or {@code null} if no snapshot should be written
+	 * @since 1.2.0
+	 */
+	public void setSnapshot(SnapshotWriter snapshot) {
+		
+		this.snapshot = snapshot;
+	}
+	
+	/**
+	 * Appends a source file to the {@code source_files} array.
+	 * @param report the report of the source file
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void write(SourceFileReport report) throws IOException {
+		
+		this.writer.beginObject();
+		this.writer.name("source_digest");
+		this.writer.value(report.getSourceDigest());
+		this.writer.name("name");
+		this.writer.value(this.namePrefix + report.getName());
+		this.writer.name("coverage");
+		this.writer.value(report.getLineCount(), report.getLineNumbers(), report.getHits());
+		this.writer.endObject();
+		
+		if(this.snapshot != null) {
+			
+			this.snapshot.write(report);
+		}
+	}
+	
+	/**
+	 * Ends the {@code source_files} array and writes the remaining fields.
+	 * The report is incomplete if the writer is closed without calling this method.
+	 * @param serviceJobId the service job id
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void finish(long serviceJobId) throws IOException {
+		
+		this.writer.endArray();
+		this.writer.name("service_job_id");
+		this.writer.value(serviceJobId);
+		this.writer.name("service_name");
+		this.writer.value("travis-ci");
+		this.writer.endObject();
+		
+		if(this.snapshot != null) {
+			
+			this.snapshot.finish(serviceJobId);
+		}
+		
+		this.finished = true;
+	}
+	
+	/**
+	 * @return the path that is put in front of the name of every source file
+	 * @since 1.2.0
+	 */
+	public String getNamePrefix() {
+		
+		return this.namePrefix;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		try {
+			
+			try {
+				
+				this.writer.close();
+				
+			} finally {
+				
+				if(this.snapshot != null) {
+					
+					this.snapshot.close();
+				}
+			}
+			
+			if(this.temporary != null && this.finished) {
+				
+				Util.replace(this.temporary, this.file);
+			}
+			
+		} finally {
+			
+			// NOTHING IS LEFT IF THE FILE WAS ALREADY MOVED
+			if(this.temporary != null) {
+				
+				Files.deleteIfExists(this.temporary.toPath());
+			}
+		}
+	}
+}
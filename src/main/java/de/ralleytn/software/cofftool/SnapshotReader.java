@@ -0,0 +1,224 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a snapshot that was written by {@linkplain SnapshotWriter}.
+ * The file is memory mapped and every source file can be read on its own through the table at the end of the snapshot.
+ * Only the source files that are requested are decoded. An instance can be used by several threads at the same time.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SnapshotReader {
+
+	private static final int TRAILER_SIZE = 24;
+	
+	private final ByteBuffer buffer;
+	private final int tableOffset;
+	private final int count;
+	private final long serviceJobId;
+	
+	/**
+	 * Maps the snapshot and reads its trailer.
+	 * @param file the snapshot
+	 * @throws IOException if the file could not be read or is not a complete snapshot
+	 * @since 1.2.0
+	 */
+	public SnapshotReader(File file) throws IOException {
+		
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			
+			long size = channel.size();
+			
+			if(size > Integer.MAX_VALUE) {
+				
+				throw new IOException(file.getName() + " is larger than 2 GB");
+			}
+			
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		
+		int size = this.buffer.limit();
+		
+		if(size < 8 + SnapshotReader.TRAILER_SIZE || this.buffer.getInt(0) != Snapshots.MAGIC || this.buffer.getInt(size - 4) != Snapshots.MAGIC) {
+			
+			throw new IOException(file.getName() + " is not a complete snapshot");
+			
+		} else if(this.buffer.getInt(4) != Snapshots.VERSION) {
+			
+			throw new IOException(file.getName() + " was written in snapshot version " + this.buffer.getInt(4) + ", only version " + Snapshots.VERSION + " is supported");
+		}
+		
+		int trailer = size - SnapshotReader.TRAILER_SIZE;
+		long tableOffset = this.buffer.getLong(trailer);
+		this.serviceJobId = this.buffer.getLong(trailer + 8);
+		this.count = this.buffer.getInt(trailer + 16);
+		
+		if(this.count < 0 || tableOffset < 8 || tableOffset + this.count * 8L != trailer) {
+			
+			throw new IOException(file.getName() + " has a corrupt file table");
+		}
+		
+		this.tableOffset = (int)tableOffset;
+	}
+	
+	/**
+	 * @return the number of source files in the snapshot
+	 * @since 1.2.0
+	 */
+	public int size() {
+		
+		return this.count;
+	}
+	
+	/**
+	 * @return the service job id of the snapshot
+	 * @since 1.2.0
+	 */
+	public long getServiceJobId() {
+		
+		return this.serviceJobId;
+	}
+	
+	/**
+	 * Reads a source file. The name is returned as it was written, including the name prefix.
+	 * @param index the index of the source file in the snapshot
+	 * @return the source file
+	 * @throws IOException if the source file is corrupt
+	 * @since 1.2.0
+	 */
+	public SourceFileReport get(int index) throws IOException {
+		
+		if(index < 0 || index >= this.count) {
+			
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.count);
+		}
+		
+		long offset = this.buffer.getLong(this.tableOffset + index * 8);
+		
+		if(offset < 8 || offset >= this.tableOffset) {
+			
+			throw new IOException("The source file " + index + " has an invalid offset");
+		}
+		
+		// EVERY CALL NEEDS ITS OWN POSITION, SO THE READER CAN BE SHARED BETWEEN THREADS
+		ByteBuffer entry = this.buffer.duplicate();
+		entry.limit(this.tableOffset);
+		entry.position((int)offset);
+		
+		try {
+			
+			byte[] name = new byte[SnapshotReader.readVarint(entry)];
+			entry.get(name);
+			byte[] digest = new byte[entry.get() & 0xFF];
+			entry.get(digest);
+			int lineCount = SnapshotReader.readVarint(entry);
+			int[] lineNumbers = new int[16];
+			int[] hits = new int[16];
+			int relevant = 0;
+			int covered = 0;
+			int missed = 0;
+			int line = 0;
+			
+			while(line < lineCount) {
+				
+				int run = SnapshotReader.readVarint(entry);
+				int value = SnapshotReader.readVarint(entry) - 1;
+				
+				if(run <= 0 || run > lineCount - line) {
+					
+					throw new IOException("The source file " + index + " has an invalid coverage run");
+					
+				} else if(value != SourceFileReport.IRRELEVANT) {
+					
+					if(relevant + run > lineNumbers.length) {
+						
+						int capacity = Math.max(lineNumbers.length * 2, relevant + run);
+						lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+						hits = Arrays.copyOf(hits, capacity);
+					}
+					
+					for(int step = 1; step <= run; step++) {
+						
+						lineNumbers[relevant] = line + step;
+						hits[relevant] = value;
+						relevant++;
+					}
+					
+					if(value > 0) {
+						
+						covered += run;
+						
+					} else {
+						
+						missed += run;
+					}
+				}
+				
+				line += run;
+			}
+			
+			return new SourceFileReport(new String(name, StandardCharsets.UTF_8), digest.length > 0 ? Digests.toHex(digest) : null, lineCount, Arrays.copyOf(lineNumbers, relevant), Arrays.copyOf(hits, relevant), covered, missed);
+			
+		} catch(BufferUnderflowException | NegativeArraySizeException exception) {
+			
+			throw new IOException("The source file " + index + " is truncated", exception);
+		}
+	}
+	
+	/**
+	 * Reads an unsigned integer that was written by {@linkplain SnapshotWriter}.
+	 * @param buffer the buffer
+	 * @return the integer
+	 * @throws IOException if the integer is longer than five bytes
+	 * @since 1.2.0
+	 */
+	private static final int readVarint(ByteBuffer buffer) throws IOException {
+		
+		int value = 0;
+		
+		for(int shift = 0; shift < 35; shift += 7) {
+			
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			
+			if(b >= 0) {
+				
+				return value;
+			}
+		}
+		
+		throw new IOException("Invalid variable length integer");
+	}
+}
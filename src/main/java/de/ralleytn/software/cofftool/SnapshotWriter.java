@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Writes a binary snapshot of a coverage report as a stream, the same way {@linkplain ReportWriter} writes the JSON report.
+ * <p>The snapshot starts with a magic number and the format version. Every source file is written as its name, its raw MD5 hash,
+ * its line count and its coverage as runs of equal values, which are created from the relevant lines without expanding them. All numbers are written as variable length integers, a hit count is
+ * written plus one, so that {@linkplain SourceFileReport#IRRELEVANT} becomes {@code 0}. The source files are followed by a table
+ * with the offset of every source file and a fixed size trailer with the offset of the table, the service job id, the number of
+ * source files and the magic number.</p>
+ * <p>A snapshot file is written into a temporary file next to it, which only replaces the file when the writer is closed after {@linkplain #finish(long)}.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SnapshotWriter implements AutoCloseable {
+
+	private final DataOutputStream out;
+	private final String namePrefix;
+	private long[] offsets = new long[1024];
+	private int count;
+	private File file;
+	private File temporary;
+	private boolean finished;
+	
+	/**
+	 * Creates the snapshot file and writes the header.
+	 * @param file the snapshot file
+	 * @throws IOException if the file could not be created
+	 * @since 1.2.0
+	 */
+	public SnapshotWriter(File file) throws IOException {
+		
+		this(file, ReportWriter.DEFAULT_NAME_PREFIX);
+	}
+	
+	/**
+	 * Creates the snapshot file and writes the header.
+	 * @param file the snapshot file
+	 * @param namePrefix the path that is put in front of the name of every source file, so that it is relative to the repository root
+	 * @throws IOException if the file could not be created
+	 * @since 1.2.0
+	 */
+	public SnapshotWriter(File file, String namePrefix) throws IOException {
+		
+		this(Util.createTemporaryFile(file), namePrefix, file);
+	}
+	
+	private SnapshotWriter(File temporary, String namePrefix, File file) throws IOException {
+		
+		this(new BufferedOutputStream(new FileOutputStream(temporary), 65536), namePrefix);
+		this.file = file;
+		this.temporary = temporary;
+		Log.info("Create " + file.getName());
+	}
+	
+	/**
+	 * Writes the header on a stream.
+	 * @param out the stream on which the snapshot should be written
+	 * @param namePrefix the path that is put in front of the name of every source file, so that it is relative to the repository root
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public SnapshotWriter(OutputStream out, String namePrefix) throws IOException {
+		
+		this.out = new DataOutputStream(out);
+		this.namePrefix = namePrefix;
+		this.out.writeInt(Snapshots.MAGIC);
+		this.out.writeInt(Snapshots.VERSION);
+	}
+	
+	/**
+	 * Appends a source file.
+	 * @param report the report of the source file
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	public void write(SourceFileReport report) throws IOException {
+		
+		if(this.count == this.offsets.length) {
+			
+			this.offsets = Arrays.copyOf(this.offsets, this.count * 2);
+		}
+		
+		this.offsets[this.count++] = this.out.size();
+		
+		byte[] name = (this.namePrefix + report.getName()).getBytes(StandardCharsets.UTF_8);
+		byte[] digest = report.getSourceDigest() != null ? Digests.fromHex(report.getSourceDigest()) : new byte[0];
+		int lineCount = report.getLineCount();
+		int[] lineNumbers = report.getLineNumbers();
+		int[] hits = report.getHits();
+		this.writeVarint(name.length);
+		this.out.write(name);
+		this.out.writeByte(digest.length);
+		this.out.write(digest);
+		this.writeVarint(lineCount);
+		
+		int line = 1;
+		int index = 0;
+		
+		while(line <= lineCount) {
+			
+			// SKIPS LINE NUMBERS THAT ARE NOT IN ASCENDING ORDER
+			while(index < lineNumbers.length && lineNumbers[index] < line) {
+				
+				index++;
+			}
+			
+			int value = SourceFileReport.IRRELEVANT;
+			int run = 0;
+			
+			if(index < lineNumbers.length && lineNumbers[index] == line) {
+				
+				// A RUN OF ADJACENT RELEVANT LINES WITH THE SAME HIT COUNT
+				value = hits[index];
+				run = 1;
+				
+				while(index + run < lineNumbers.length && lineNumbers[index + run] == line + run && hits[index + run] == value && line + run <= lineCount) {
+					
+					run++;
+				}
+				
+				index += run;
+				
+			} else {
+				
+				// A RUN OF IRRELEVANT LINES UP TO THE NEXT RELEVANT LINE
+				run = (index < lineNumbers.length ? Math.min(lineNumbers[index], lineCount + 1) : lineCount + 1) - line;
+			}
+			
+			this.writeVarint(run);
+			this.writeVarint(value + 1);
+			line += run;
+		}
+	}
+	
+	/**
+	 * Writes the table of the source files and the trailer.
+	 * The snapshot is incomplete if the writer is closed without calling this method.
+	 * @param serviceJobId the service job id
+	 * @throws IOException if something went wrong while writing or the snapshot is larger than 2 GB
+	 * @since 1.2.0
+	 */
+	public void finish(long serviceJobId) throws IOException {
+		
+		long tableOffset = this.out.size();
+		
+		for(int index = 0; index < this.count; index++) {
+			
+			this.out.writeLong(this.offsets[index]);
+		}
+		
+		this.out.writeLong(tableOffset);
+		this.out.writeLong(serviceJobId);
+		this.out.writeInt(this.count);
+		this.out.writeInt(Snapshots.MAGIC);
+		
+		// THE BYTE COUNTER OF THE DATA OUTPUT STREAM STOPS AT INTEGER.MAX_VALUE
+		if(this.out.size() == Integer.MAX_VALUE) {
+			
+			throw new IOException("The snapshot is larger than 2 GB");
+		}
+		
+		this.finished = true;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		try {
+			
+			this.out.close();
+			
+			if(this.temporary != null && this.finished) {
+				
+				Util.replace(this.temporary, this.file);
+			}
+			
+		} finally {
+			
+			// NOTHING IS LEFT IF THE FILE WAS ALREADY MOVED
+			if(this.temporary != null) {
+				
+				Files.deleteIfExists(this.temporary.toPath());
+			}
+		}
+	}
+	
+	/**
+	 * Writes an unsigned integer with seven bits per byte. The highest bit of a byte is set if another byte follows.
+	 * @param value the integer
+	 * @throws IOException if something went wrong while writing
+	 * @since 1.2.0
+	 */
+	private void writeVarint(int value) throws IOException {
+		
+		int remaining = value;
+		
+		while((remaining & ~0x7F) != 0) {
+			
+			this.out.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		
+		this.out.writeByte(remaining);
+	}
+}
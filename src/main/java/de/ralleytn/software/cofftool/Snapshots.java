@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Contains the constants of the snapshot format and converts between snapshots and Coveralls reports.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ * @see SnapshotWriter
+ * @see SnapshotReader
+ */
+public final class Snapshots {
+
+	/**
+	 * The magic number at the start and at the end of a snapshot.
+	 * @since 1.2.0
+	 */
+	public static final int MAGIC = 0x436F6673;
+	
+	/**
+	 * The version of the snapshot format.
+	 * @since 1.2.0
+	 */
+	public static final int VERSION = 1;
+	
+	/**
+	 * The file extension of a snapshot.
+	 * @since 1.2.0
+	 */
+	public static final String EXTENSION = ".bin";
+	
+	private Snapshots() {}
+	
+	/**
+	 * @param report the Coveralls report
+	 * @return the snapshot next to the report, {@code coveralls.bin} for {@code coveralls.json}
+	 * @since 1.2.0
+	 */
+	public static final File getSnapshotFile(File report) {
+		
+		return Snapshots.replaceExtension(report, Snapshots.EXTENSION);
+	}
+	
+	/**
+	 * @param snapshot the snapshot
+	 * @return the Coveralls report next to the snapshot, {@code coveralls.json} for {@code coveralls.bin}
+	 * @since 1.2.0
+	 */
+	public static final File getReportFile(File snapshot) {
+		
+		return Snapshots.replaceExtension(snapshot, ".json");
+	}
+	
+	/**
+	 * @param file a file
+	 * @return {@code true} if the file starts with the magic number of a snapshot, else {@code false}
+	 * @throws IOException if the file could not be read
+	 * @since 1.2.0
+	 */
+	public static final boolean isSnapshot(File file) throws IOException {
+		
+		try(DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			
+			return file.length() >= 4 && in.readInt() == Snapshots.MAGIC;
+		}
+	}
+	
+	/**
+	 * Opens a snapshot or a Coveralls report to read its source files one after another.
+	 * @param file the snapshot or the Coveralls report
+	 * @return the reader
+	 * @throws IOException if the file could not be opened
+	 * @since 1.2.0
+	 */
+	public static final SourceFileReader open(File file) throws IOException {
+		
+		if(!Snapshots.isSnapshot(file)) {
+			
+			return new CoverallsReportReader(file);
+		}
+		
+		SnapshotReader reader = new SnapshotReader(file);
+		
+		return new SourceFileReader() {
+			
+			private int index;
+			
+			@Override
+			public SourceFileReport next() throws IOException {
+				
+				return this.index < reader.size() ? reader.get(this.index++) : null;
+			}
+			
+			@Override
+			public long getServiceJobId() {
+				
+				return reader.getServiceJobId();
+			}
+			
+			@Override
+			public void close() {}
+		};
+	}
+	
+	/**
+	 * Converts a snapshot to a Coveralls report.
+	 * @param snapshot the snapshot
+	 * @param report the Coveralls report that should be created
+	 * @throws IOException if the snapshot could not be read or the report could not be written
+	 * @since 1.2.0
+	 */
+	public static final void toReport(File snapshot, File report) throws IOException {
+		
+		Log.info("Convert " + snapshot.getName() + " to " + report.getName());
+		SnapshotReader reader = new SnapshotReader(snapshot);
+		
+		// THE NAMES IN THE SNAPSHOT ALREADY HAVE THEIR PREFIX
+		try(ReportWriter writer = new ReportWriter(report, "")) {
+			
+			for(int index = 0; index < reader.size(); index++) {
+				
+				writer.write(reader.get(index));
+			}
+			
+			writer.finish(reader.getServiceJobId());
+		}
+	}
+	
+	/**
+	 * Converts a Coveralls report to a snapshot.
+	 * @param report the Coveralls report
+	 * @param snapshot the snapshot that should be created
+	 * @throws IOException if the report could not be read or the snapshot could not be written
+	 * @since 1.2.0
+	 */
+	public static final void toSnapshot(File report, File snapshot) throws IOException {
+		
+		Log.info("Convert " + report.getName() + " to " + snapshot.getName());
+		
+		// THE NAMES IN THE REPORT ALREADY HAVE THEIR PREFIX
+		try(CoverallsReportReader reader = new CoverallsReportReader(report);
+			SnapshotWriter writer = new SnapshotWriter(snapshot, "")) {
+			
+			SourceFileReport sourceFile = null;
+			
+			while((sourceFile = reader.next()) != null) {
+				
+				writer.write(sourceFile);
+			}
+			
+			writer.finish(reader.getServiceJobId());
+		}
+	}
+	
+	/**
+	 * Converts a snapshot to a Coveralls report or a Coveralls report to a snapshot.
+	 * @param input the snapshot or the Coveralls report
+	 * @param output the file that should be created or {@code null} to create it next to the input
+	 * @return the created file
+	 * @throws IOException if the input could not be read or the output could not be written
+	 * @since 1.2.0
+	 */
+	public static final File convert(File input, File output) throws IOException {
+		
+		if(Snapshots.isSnapshot(input)) {
+			
+			File report = output != null ? output : Snapshots.getReportFile(input);
+			Snapshots.toReport(input, report);
+			return report;
+		}
+		
+		File snapshot = output != null ? output : Snapshots.getSnapshotFile(input);
+		Snapshots.toSnapshot(input, snapshot);
+		return snapshot;
+	}
+	
+	private static final File replaceExtension(File file, String extension) {
+		
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return new File(file.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + extension);
+	}
+}
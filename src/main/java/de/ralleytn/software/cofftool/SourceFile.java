@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A source file that was found by the {@linkplain FileTreeWalker} together with the attributes that were read while walking the tree.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SourceFile {
+
+	private final File file;
+	private final BasicFileAttributes attributes;
+	
+	/**
+	 * @param file the source file
+	 * @param attributes the attributes of the source file
+	 * @since 1.2.0
+	 */
+	public SourceFile(File file, BasicFileAttributes attributes) {
+		
+		this.file = file;
+		this.attributes = attributes;
+	}
+	
+	/**
+	 * @return the source file
+	 * @since 1.2.0
+	 */
+	public File getFile() {
+		
+		return this.file;
+	}
+	
+	/**
+	 * @return the size of the source file in bytes
+	 * @since 1.2.0
+	 */
+	public long getSize() {
+		
+		return this.attributes.size();
+	}
+	
+	/**
+	 * @return the last modification time of the source file in milliseconds
+	 * @since 1.2.0
+	 */
+	public long getLastModified() {
+		
+		return this.attributes.lastModifiedTime().toMillis();
+	}
+}
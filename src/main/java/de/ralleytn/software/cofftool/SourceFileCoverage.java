@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+/**
+ * Contains the line coverage of a single {@code sourcefile} element of a JaCoCo report.
+ * The line numbers and hit counts are stored in two parallel arrays that are sorted in the order of the report.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SourceFileCoverage {
+
+	private final String packageName;
+	private final String fileName;
+	private final int[] lineNumbers;
+	private final int[] hits;
+	
+	/**
+	 * @param packageName the name of the package in which the source file is ({@code /} separated)
+	 * @param fileName the name of the source file
+	 * @param lineNumbers the numbers of the relevant lines
+	 * @param hits the covered instructions of each line in {@code lineNumbers}
+	 * @since 1.2.0
+	 */
+	public SourceFileCoverage(String packageName, String fileName, int[] lineNumbers, int[] hits) {
+		
+		this.packageName = packageName;
+		this.fileName = fileName;
+		this.lineNumbers = lineNumbers;
+		this.hits = hits;
+	}
+	
+	/**
+	 * @return the name of the package in which the source file is ({@code /} separated)
+	 * @since 1.2.0
+	 */
+	public String getPackageName() {
+		
+		return this.packageName;
+	}
+	
+	/**
+	 * @return the name of the source file
+	 * @since 1.2.0
+	 */
+	public String getFileName() {
+		
+		return this.fileName;
+	}
+	
+	/**
+	 * @return the path of the source file relative to the default package
+	 * @since 1.2.0
+	 */
+	public String getName() {
+		
+		return this.packageName.isEmpty() ? this.fileName : this.packageName + "/" + this.fileName;
+	}
+	
+	/**
+	 * @return the numbers of the relevant lines
+	 * @since 1.2.0
+	 */
+	public int[] getLineNumbers() {
+		
+		return this.lineNumbers;
+	}
+	
+	/**
+	 * @return the covered instructions of each line in {@linkplain #getLineNumbers()}
+	 * @since 1.2.0
+	 */
+	public int[] getHits() {
+		
+		return this.hits;
+	}
+	
+	/**
+	 * @return the number of lines that were executed at least once
+	 * @since 1.2.0
+	 */
+	public int getCoveredLineCount() {
+		
+		int covered = 0;
+		
+		for(int hit : this.hits) {
+			
+			if(hit > 0) {
+				
+				covered++;
+			}
+		}
+		
+		return covered;
+	}
+	
+	/**
+	 * @return the number of lines that were never executed
+	 * @since 1.2.0
+	 */
+	public int getMissedLineCount() {
+		
+		return this.hits.length - this.getCoveredLineCount();
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.IOException;
+
+/**
+ * Reads the source files of a Coveralls report or a snapshot one after another.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ * @see Snapshots#open(java.io.File)
+ */
+public interface SourceFileReader extends AutoCloseable {
+
+	/**
+	 * Reads the next source file. The names are returned as they were written, including the name prefix.
+	 * @return the next source file or {@code null} if there are no more source files
+	 * @throws IOException if the source file could not be read
+	 * @since 1.2.0
+	 */
+	public SourceFileReport next() throws IOException;
+	
+	/**
+	 * @return the service job id or {@code -1} if it is not known yet; it is known at the latest after {@linkplain #next()} returned {@code null}
+	 * @since 1.2.0
+	 */
+	public long getServiceJobId();
+	
+	@Override
+	public void close() throws IOException;
+}
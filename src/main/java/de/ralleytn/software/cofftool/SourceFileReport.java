@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+/**
+ * Contains everything that is known about a single source file after it was processed.
+ * <p>Only the relevant lines are stored, as two parallel arrays with the line numbers in ascending order and their hit counts.
+ * Lines without coverage information, like comments, imports and blank lines, take no memory. A dense array in which every line
+ * has an entry is never created; {@linkplain ReportWriter} and {@linkplain SnapshotWriter} write the sparse arrays directly.</p>
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SourceFileReport {
+
+	/**
+	 * Marks a line that is not relevant for the coverage. It is written as {@code null}.
+	 * @since 1.2.0
+	 */
+	public static final int IRRELEVANT = -1;
+	
+	private final String name;
+	private final String sourceDigest;
+	private final int lineCount;
+	private final int[] lineNumbers;
+	private final int[] hits;
+	private final int coveredLineCount;
+	private final int missedLineCount;
+	
+	/**
+	 * @param name the path of the source file relative to the source location
+	 * @param sourceDigest the hexadecimal MD5 hash of the source file
+	 * @param lineCount the number of lines in the source file
+	 * @param lineNumbers the numbers of the relevant lines in ascending order, starting at {@code 1}; the array is not copied
+	 * @param hits the hit count of each line in {@code lineNumbers}; the array is not copied
+	 * @param coveredLineCount the number of lines that were executed at least once
+	 * @param missedLineCount the number of relevant lines that were never executed
+	 * @since 1.2.0
+	 */
+	public SourceFileReport(String name, String sourceDigest, int lineCount, int[] lineNumbers, int[] hits, int coveredLineCount, int missedLineCount) {
+		
+		this.name = name;
+		this.sourceDigest = sourceDigest;
+		this.lineCount = lineCount;
+		this.lineNumbers = lineNumbers;
+		this.hits = hits;
+		this.coveredLineCount = coveredLineCount;
+		this.missedLineCount = missedLineCount;
+	}
+	
+	/**
+	 * @return the path of the source file relative to the source location
+	 * @since 1.2.0
+	 */
+	public String getName() {
+		
+		return this.name;
+	}
+	
+	/**
+	 * @return the hexadecimal MD5 hash of the source file
+	 * @since 1.2.0
+	 */
+	public String getSourceDigest() {
+		
+		return this.sourceDigest;
+	}
+	
+	/**
+	 * @return the numbers of the relevant lines in ascending order, starting at {@code 1}
+	 * @since 1.2.0
+	 */
+	public int[] getLineNumbers() {
+		
+		return this.lineNumbers;
+	}
+	
+	/**
+	 * @return the hit count of each line in {@linkplain #getLineNumbers()}
+	 * @since 1.2.0
+	 */
+	public int[] getHits() {
+		
+		return this.hits;
+	}
+	
+	/**
+	 * @return the number of lines in the source file
+	 * @since 1.2.0
+	 */
+	public int getLineCount() {
+		
+		return this.lineCount;
+	}
+	
+	/**
+	 * @return the number of lines that were executed at least once
+	 * @since 1.2.0
+	 */
+	public int getCoveredLineCount() {
+		
+		return this.coveredLineCount;
+	}
+	
+	/**
+	 * @return the number of relevant lines that were never executed
+	 * @since 1.2.0
+	 */
+	public int getMissedLineCount() {
+		
+		return this.missedLineCount;
+	}
+}
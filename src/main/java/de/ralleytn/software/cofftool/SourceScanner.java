@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * Reads a source file once and computes its line count and MD5 hash in the same pass.
+ * The read buffer is reused for every file, so an instance should not be shared between threads.
+ * The {@linkplain MessageDigest} is the one of the current thread, see {@linkplain Digests#md5()}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SourceScanner {
+
+	private final byte[] buffer = new byte[65536];
+	private int lineCount;
+	private String md5;
+	
+	/**
+	 * Scans a source file.
+	 * Lines are counted the same way {@linkplain java.io.BufferedReader#readLine()} would count them,
+	 * which means that {@code \n}, {@code \r} and {@code \r\n} all terminate a line.
+	 * @param file the source file
+	 * @throws IOException if the file could not be read
+	 * @since 1.2.0
+	 */
+	public void scan(File file) throws IOException {
+		
+		MessageDigest digest = Digests.md5();
+		int lines = 0;
+		boolean carriageReturn = false;
+		boolean unterminatedLine = false;
+		ByteBuffer byteBuffer = ByteBuffer.wrap(this.buffer);
+		
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			
+			int read = 0;
+			
+			while((read = channel.read(byteBuffer)) != -1) {
+				
+				for(int index = 0; index < read; index++) {
+					
+					byte b = this.buffer[index];
+					
+					if(b == '\n') {
+						
+						if(!carriageReturn) {
+							
+							lines++;
+						}
+						
+						carriageReturn = false;
+						unterminatedLine = false;
+						
+					} else if(b == '\r') {
+						
+						lines++;
+						carriageReturn = true;
+						unterminatedLine = false;
+						
+					} else {
+						
+						carriageReturn = false;
+						unterminatedLine = true;
+					}
+				}
+				
+				digest.update(this.buffer, 0, read);
+				byteBuffer.clear();
+			}
+		}
+		
+		this.lineCount = unterminatedLine ? lines + 1 : lines;
+		this.md5 = Digests.toHex(digest.digest());
+	}
+	
+	/**
+	 * @return the number of lines in the last scanned file
+	 * @since 1.2.0
+	 */
+	public int getLineCount() {
+		
+		return this.lineCount;
+	}
+	
+	/**
+	 * @return the hexadecimal MD5 hash of the last scanned file
+	 * @since 1.2.0
+	 */
+	public String getMD5() {
+		
+		return this.md5;
+	}
+}
@@ -24,12 +24,10 @@
 package de.ralleytn.software.cofftool;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URLEncoder;
-
-import de.ralleytn.simple.json.JSONArray;
-import de.ralleytn.simple.json.JSONObject;
-import de.ralleytn.simple.json.JSONParseException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Represents the client that communicates with the Travis API.
@@ -40,14 +38,27 @@ import de.ralleytn.simple.json.JSONParseException;
 public class TravisClient extends Client {
 
 	private String token;
+	private String url;
 	
 	/**
+	 * Creates a client for the public Travis CI API.
 	 * @param token the Travis CI access token
 	 * @since 1.0.0
 	 */
 	public TravisClient(String token) {
 		
+		this(token, "https://api.travis-ci.org");
+	}
+	
+	/**
+	 * @param token the Travis CI access token
+	 * @param url the base URL of the API (for example a local server while testing)
+	 * @since 1.2.0
+	 */
+	public TravisClient(String token, String url) {
+		
 		this.token = token;
+		this.url = url;
 	}
 	
 	@Override
@@ -63,49 +74,149 @@ public class TravisClient extends Client {
 	
 	/**
 	 * Grabs the latest job id of your latest build of the given repository.
-	 * @param repo the repository (User/Repo)
+	 * Only the latest build is requested and the response is read as a stream until the job id was found, the rest of it is never parsed.
+	 * @param repository the repository (User/Repo)
 	 * @return the job id
-	 * @throws JSONParseException if the response JSON could not be parsed
-	 * @throws IOException if there was an I/O error in the request
+	 * @throws IOException if there was an I/O error in the request, the response is malformed or the repository has no builds
 	 * @since 1.0.0
 	 */
-	public long getLatestServiceJobId(String repository) throws JSONParseException, IOException {
+	public long getLatestServiceJobId(String repository) throws IOException {
+		
+		HttpURLConnection connection = this.get("/repo/" + URLEncoder.encode(repository, "UTF-8") + "/builds?limit=1");
 		
-		JSONObject response = this.get("/repo/" + URLEncoder.encode(repository, "UTF-8") + "/builds");
-		JSONArray jobs = this.getLatestBuild(response).getArray("jobs");
-		JSONObject latestJob = jobs.getObject(jobs.size() - 1);
-		long jobId = latestJob.getLong("id");
-		System.out.println("[INFO] Latest Job: " + jobId);
+		try(JSONReader reader = new JSONReader(new InputStreamReader(this.getResponseStream(connection), StandardCharsets.UTF_8))) {
+			
+			reader.beginObject();
+			
+			while(reader.hasNext()) {
+				
+				if("builds".equals(reader.nextName())) {
+					
+					reader.beginArray();
+					
+					if(!reader.hasNext()) {
+						
+						throw new IOException("The repository " + repository + " has no builds");
+					}
+					
+					long jobId = this.readLatestJobId(reader);
+					Log.info("Latest Job: " + jobId);
+					
+					return jobId;
+				}
+				
+				reader.skipValue();
+			}
+		}
+		
+		throw new IOException("The response of Travis CI contains no builds");
+	}
+	
+	/**
+	 * Reads the build object on which the reader is positioned up to the point where its id and the id of its last job are known.
+	 * @param reader the reader
+	 * @return the id of the last job of the build
+	 * @throws IOException if the build could not be read or has no jobs
+	 * @since 1.2.0
+	 */
+	private long readLatestJobId(JSONReader reader) throws IOException {
+		
+		String buildId = null;
+		long jobId = -1;
+		reader.beginObject();
+		
+		// STOPS AS SOON AS BOTH IDS ARE KNOWN
+		while((buildId == null || jobId == -1) && reader.hasNext()) {
+			
+			String name = reader.nextName();
+			
+			if("id".equals(name)) {
+				
+				buildId = reader.nextString();
+				Log.info("Latest Build: " + buildId);
+				
+			} else if("jobs".equals(name)) {
+				
+				reader.beginArray();
+				
+				while(reader.hasNext()) {
+					
+					jobId = this.readId(reader);
+				}
+				
+				reader.endArray();
+				
+				if(jobId == -1) {
+					
+					break;
+				}
+				
+			} else {
+				
+				reader.skipValue();
+			}
+		}
+		
+		if(jobId == -1) {
+			
+			throw new IOException("The latest build has no jobs");
+		}
 		
 		return jobId;
 	}
 	
 	/**
-	 * Gets the latest build object from the response.
-	 * @param response the response object
-	 * @return the JSON object that represents the latest build
+	 * Reads the id of the object on which the reader is positioned.
+	 * @param reader the reader
+	 * @return the id
+	 * @throws IOException if the object could not be read or has no id
 	 * @since 1.2.0
 	 */
-	private JSONObject getLatestBuild(JSONObject response) {
+	private long readId(JSONReader reader) throws IOException {
+		
+		long id = -1;
+		reader.beginObject();
 		
-		JSONArray builds = response.getArray("builds");
-		JSONObject latestBuild = builds.getObject(0);
-		System.out.println("[INFO] Latest Build: " + latestBuild.getString("id"));
-		return latestBuild;
+		while(reader.hasNext()) {
+			
+			if("id".equals(reader.nextName())) {
+				
+				id = reader.nextLong();
+				
+			} else {
+				
+				reader.skipValue();
+			}
+		}
+		
+		reader.endObject();
+		
+		if(id == -1) {
+			
+			throw new IOException("A job has no id");
+		}
+		
+		return id;
 	}
 	
 	/**
 	 * Does a GET request against the Travis CI API.
 	 * @param endpoint the API endpoint
-	 * @return the response object
-	 * @throws JSONParseException if the response JSON could not be parsed
-	 * @throws IOException if there was an I/O error in the request
+	 * @return the connection from which the response can be read
+	 * @throws IOException if there was an I/O error in the request or Travis CI responded with an error
 	 * @since 1.0.0
 	 */
-	private JSONObject get(String endpoint) throws JSONParseException, IOException {
+	private HttpURLConnection get(String endpoint) throws IOException {
 		
-		String url = "https://api.travis-ci.org" + endpoint;
-		System.out.println("[INFO] Do a GET to " + url);
-		return new JSONObject(this.readResponse(this.createConnection(url, "GET")));
+		String url = this.url + endpoint;
+		Log.info("Do a GET to " + url);
+		HttpURLConnection connection = this.request(url, "GET", null, true);
+		
+		if(connection.getResponseCode() != 200) {
+			
+			throw new IOException("Travis CI responded with " + connection.getResponseCode() + ": " + new String(this.readResponse(connection), StandardCharsets.UTF_8));
+		}
+		
+		return connection;
 	}
 }
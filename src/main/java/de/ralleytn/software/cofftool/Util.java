@@ -23,25 +23,17 @@
  */
 package de.ralleytn.software.cofftool;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.function.Consumer;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import java.io.InterruptedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Contains some utility methods for the project.
@@ -60,17 +52,17 @@ public final class Util {
 	 */
 	public static final void printException(Exception exception) {
 		
-		System.err.println("[ERROR]");
-		System.err.println("[ERROR] ----");
-		System.err.println("[ERROR] " + exception.getClass().getName() + ": " + exception.getMessage());
+		Log.error("");
+		Log.error("----");
+		Log.error(exception.getClass().getName() + ": " + exception.getMessage());
 		
 		for(StackTraceElement stackTraceElement : exception.getStackTrace()) {
 			
-			System.err.println("[ERROR] \t" + stackTraceElement.toString());
+			Log.error("\t" + stackTraceElement.toString());
 		}
 		
-		System.err.println("[ERROR] ----");
-		System.err.println("[ERROR]");
+		Log.error("----");
+		Log.error("");
 	}
 	
 	/**
@@ -86,106 +78,89 @@ public final class Util {
 	}
 	
 	/**
-	 * @param node the XML node
-	 * @param attribute the attribute name
-	 * @return the attribute value of the given attribute in the given XML node
+	 * Creates an empty temporary file next to a file, so it can replace the file with {@linkplain #replace(File, File)} once it is complete.
+	 * @param target the file that should be replaced
+	 * @return the temporary file
+	 * @throws IOException if the file could not be created
 	 * @since 1.2.0
 	 */
-	public static final String getXMLAttributeValue(Node node, String attribute) {
+	public static final File createTemporaryFile(File target) throws IOException {
 		
-		return node.getAttributes().getNamedItem(attribute).getNodeValue();
+		File directory = target.getAbsoluteFile().getParentFile();
+		return File.createTempFile("." + target.getName() + "-", ".tmp", directory);
 	}
 	
 	/**
-	 * Searches for the corresponding node of the given source file.
-	 * @param nodes the node list in which should be searched
-	 * @param sourceLocation
-	 * @param sourceFile the source file
-	 * @return the node or {@code null} if there is no node for the given source file
-	 * @since 1.0.0
+	 * Moves a temporary file over another file. The move is atomic if the file system supports it, so the other file is never incomplete.
+	 * @param temporary the temporary file that was created by {@linkplain #createTemporaryFile(File)}
+	 * @param target the file that should be replaced
+	 * @throws IOException if the file could not be moved
+	 * @since 1.2.0
 	 */
-	public static final Node getNodeForSourceFile(NodeList nodes, String sourceLocation, File sourceFile) {
+	public static final void replace(File temporary, File target) throws IOException {
 		
-		for(int index = 0; index < nodes.getLength(); index++) {
+		try {
 			
-			Node node = nodes.item(index);
-			String fullName = Util.getXMLAttributeValue(node.getParentNode(), "name") + "/" + Util.getXMLAttributeValue(node, "name");
+			Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
 			
-			if(sourceFile.getAbsolutePath().replace("\\", "/").endsWith(fullName)) {
-
-				return node;
-			}
+		} catch(AtomicMoveNotSupportedException exception) {
+			
+			Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
 		}
-		
-		return null;
 	}
 	
 	/**
-	 * Counts how many lines there are in a single source file.
-	 * @param file the source file
-	 * @return the number of lines in this file
-	 * @throws IOException if the file could not be read
-	 * @since 1.0.0
+	 * Runs a task in the current thread.
+	 * @param task the task
+	 * @param <T> the result type of the task
+	 * @return an already completed {@linkplain Future} with the result of the task
+	 * @since 1.2.0
 	 */
-	public static final int getLineCount(File file) throws IOException {
+	public static final <T> Future<T> run(Callable<T> task) {
 		
-		try(BufferedReader reader = new BufferedReader(new FileReader(file))) {
-			
-			int lines = 0;
-			
-			while(reader.readLine() != null) {
-				
-				lines++;
-			}
-			
-			return lines;
-		}
+		FutureTask<T> future = new FutureTask<>(task);
+		future.run();
+		return future;
 	}
 	
 	/**
-	 * Crawls through a directory tree recursively.
-	 * @param root the tree root
-	 * @param callback the callback function that is called for every element in the tree
-	 * @since 1.0.0
+	 * Waits for the result of a task.
+	 * @param future the {@linkplain Future} of the task
+	 * @param <T> the result type of the task
+	 * @return the result of the task
+	 * @throws IOException if the task failed or the current thread was interrupted
+	 * @since 1.2.0
 	 */
-	public static final void crawlThroughFileTree(File root, Consumer<File> callback) {
+	public static final <T> T await(Future<T> future) throws IOException {
 		
-		File[] subFiles = root.listFiles();
-		
-		if(subFiles != null) {
+		try {
+			
+			return future.get();
+			
+		} catch(InterruptedException exception) {
 			
-			for(File subFile : subFiles) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a task");
+			
+		} catch(ExecutionException exception) {
+			
+			Throwable cause = exception.getCause();
+			
+			if(cause instanceof IOException) {
+				
+				throw (IOException)cause;
 				
-				if(subFile.isDirectory()) {
-					
-					Util.crawlThroughFileTree(subFile, callback);
-					
-				}
+			} else if(cause instanceof RuntimeException) {
 				
-				callback.accept(subFile);
+				throw (RuntimeException)cause;
+				
+			} else if(cause instanceof Error) {
+				
+				throw (Error)cause;
 			}
-		}
-	}
-	
-	/**
-	 * Parses an XML file.
-	 * @param xmlFile the XML file
-	 * @return the parsed XML file as DOM
-	 * @throws SAXException if the XML is invalid
-	 * @throws IOException if the file could not be read
-	 * @throws ParserConfigurationException if the XML is invalid
-	 * @since 1.0.0
-	 */
-	public static final Document parseXML(File xmlFile) throws SAXException, IOException, ParserConfigurationException {
-
-		System.out.println("[INFO] Parse " + xmlFile.getAbsolutePath());
-		
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document document = builder.parse(xmlFile);
-		document.getDocumentElement().normalize();
 			
-		return document;
+			throw new IOException(cause);
+		}
 	}
 	
 	/**
@@ -244,21 +219,11 @@ public final class Util {
 	 * @param data the binary data
 	 * @return a hexadecimal MD5 hash string of the given data
 	 * @since 1.0.0
+	 * @see Digests#md5(byte[])
 	 */
 	public static final String createMD5(byte[] data) {
 
-		String md5 = null;
-		
-		try {
-			
-			md5 = Util.toHexString(MessageDigest.getInstance("MD5").digest(data));
-			
-		} catch(NoSuchAlgorithmException exception) {
-			
-			// WILL NEVER HAPPEN BECAUSE THE ALGORITHM EXISTS!
-		}
-		
-		return md5;
+		return Digests.md5(data);
 	}
 	
 	/**
@@ -266,40 +231,10 @@ public final class Util {
 	 * @param binary the binary data
 	 * @return the created hexadecimal string
 	 * @since 1.0.0
+	 * @see Digests#toHex(byte[])
 	 */
 	public static final String toHexString(byte[] binary) {
 		
-		StringBuilder hexBuilder = new StringBuilder();
-		
-		for(byte b : binary) {
-			
-			hexBuilder.append(Integer.toString((b & 0xFF) + 0x100, 16).substring(1));
-		}
-		
-		return hexBuilder.toString();
-	}
-	
-	/**
-	 * Reads the file binary.
-	 * @param file the file that should be read
-	 * @return the binary data of the given file
-	 * @throws IOException if something went wrong while reading the file
-	 * @since 1.0.0
-	 */
-	public static final byte[] readFile(File file) throws IOException {
-		
-		try(InputStream in = new FileInputStream(file);
-			ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-			
-			int read = 0;
-			byte[] buffer = new byte[4096];
-			
-			while((read = in.read(buffer)) != -1) {
-				
-				out.write(buffer, 0, read);
-			}
-			
-			return out.toByteArray();
-		}
+		return Digests.toHex(binary);
 	}
 }
@@ -1,5 +1,5 @@
 module de.ralleytn.software.cofftool {
 	
-	requires de.ralleytn.simple.json;
+	requires java.management;
 	requires java.xml;
 }
\ No newline at end of file
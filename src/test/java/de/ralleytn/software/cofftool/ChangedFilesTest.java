@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@linkplain ChangedFiles} and the changed-files mode of {@linkplain CoverageReportGenerator} on a temporary Git repository.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ChangedFilesTest {
+
+	private static final String REPORT =
+		"<report name=\"example\">" +
+			"<package name=\"de/example\">" +
+				"<sourcefile name=\"A.java\"><line nr=\"1\" mi=\"0\" ci=\"3\"/><line nr=\"2\" mi=\"1\" ci=\"0\"/></sourcefile>" +
+				"<sourcefile name=\"B.java\"><line nr=\"1\" mi=\"0\" ci=\"1\"/></sourcefile>" +
+				"<sourcefile name=\"D.java\"><line nr=\"2\" mi=\"0\" ci=\"4\"/></sourcefile>" +
+			"</package>" +
+		"</report>";
+	
+	private Path root;
+	private Path sources;
+	private File report;
+	
+	@Before
+	public void setUp() throws IOException, InterruptedException {
+		
+		this.root = Files.createTempDirectory("cofftool").toRealPath();
+		
+		try {
+			
+			ChangedFilesTest.git(this.root, "init", "-q");
+			
+		} catch(IOException exception) {
+			
+			assumeTrue("Git is not available: " + exception.getMessage(), false);
+		}
+		
+		this.sources = Files.createDirectories(this.root.resolve("src/main/java/de/example")).getParent().getParent();
+		this.report = this.root.resolve("jacoco.xml").toFile();
+		Files.write(this.report.toPath(), ChangedFilesTest.REPORT.getBytes(StandardCharsets.UTF_8));
+		Files.write(this.root.resolve(".gitignore"), "*.xml\n*.json\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(this.root.resolve("README.md"), "# Example\n".getBytes(StandardCharsets.UTF_8));
+		this.writeSource("A.java", "class A {\n}\n");
+		this.writeSource("B.java", "class B {}\n");
+		this.writeSource("C.java", "class C {}\n");
+		ChangedFilesTest.commit(this.root);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		if(this.root == null) {
+			
+			return;
+		}
+		
+		try(Stream<Path> paths = Files.walk(this.root)) {
+			
+			for(Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				
+				Files.delete(path);
+			}
+		}
+	}
+	
+	@Test
+	public void testWorkingTree() throws IOException {
+		
+		this.change();
+		ChangedFiles changes = ChangedFiles.read(this.sources.toFile(), "HEAD", null);
+		
+		// CHANGED, DELETED AND UNTRACKED FILES, BUT NOT THE IGNORED REPORT
+		assertEquals(this.root, changes.getRoot());
+		assertEquals(new HashSet<>(this.resolve("README.md", "src/main/java/de/example/A.java", "src/main/java/de/example/C.java", "src/main/java/de/example/D.java")), changes.getPaths());
+	}
+	
+	@Test
+	public void testCommits() throws IOException, InterruptedException {
+		
+		this.change();
+		ChangedFilesTest.commit(this.root);
+		this.writeSource("E.java", "class E {}\n");
+		ChangedFiles changes = ChangedFiles.read(this.root.toFile(), "HEAD~1", "HEAD");
+		
+		// E.JAVA IS NOT PART OF THE COMMITS
+		assertEquals(new HashSet<>(this.resolve("README.md", "src/main/java/de/example/A.java", "src/main/java/de/example/C.java", "src/main/java/de/example/D.java")), changes.getPaths());
+	}
+	
+	@Test
+	public void testChangedFilesMode() throws IOException, XMLStreamException {
+		
+		File previous = this.root.resolve("previous.json").toFile();
+		File changed = this.root.resolve("changed.json").toFile();
+		File full = this.root.resolve("full.json").toFile();
+		this.generate(previous, null, null);
+		this.change();
+		
+		// ONLY A.JAVA AND D.JAVA ARE READ, B.JAVA IS TAKEN FROM THE PREVIOUS REPORT AND C.JAVA IS LEFT OUT
+		ChangedFiles changes = ChangedFiles.read(this.root.toFile(), "HEAD", null);
+		this.generate(changed, previous, changes);
+		this.generate(full, null, null);
+		
+		String json = new String(Files.readAllBytes(changed.toPath()), StandardCharsets.UTF_8);
+		assertEquals(json, 3, json.split("\"name\":").length - 1);
+		assertArrayEquals(Files.readAllBytes(full.toPath()), Files.readAllBytes(changed.toPath()));
+	}
+	
+	private void generate(File output, File previous, ChangedFiles changes) throws IOException, XMLStreamException {
+		
+		CoverageReportGenerator generator = new CoverageReportGenerator(1, null, new FileTreeWalker(Collections.emptyList(), Collections.emptyList()), new Metrics());
+		
+		try(ReportWriter writer = new ReportWriter(output, "")) {
+			
+			if(changes != null) {
+				
+				generator.createCoverageReportData(this.sources.toString(), Collections.singletonList(this.report), CoverageMerger.Mode.SUM, writer, previous, changes);
+				
+			} else {
+				
+				generator.createCoverageReportData(this.sources.toString(), this.report, writer);
+			}
+			
+			writer.finish(1);
+		}
+	}
+	
+	private void change() throws IOException {
+		
+		this.writeSource("A.java", "class A {\n\tint a;\n}\n");
+		this.writeSource("D.java", "class D {\n\tint d;\n}\n");
+		Files.delete(this.sources.resolve("de/example/C.java"));
+		Files.write(this.root.resolve("README.md"), "# Changed\n".getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private void writeSource(String name, String content) throws IOException {
+		
+		Files.write(this.sources.resolve("de/example").resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private List<Path> resolve(String... paths) {
+		
+		List<Path> resolved = new ArrayList<>();
+		
+		for(String path : paths) {
+			
+			resolved.add(this.root.resolve(path));
+		}
+		
+		return resolved;
+	}
+	
+	private static final void commit(Path directory) throws IOException {
+		
+		ChangedFilesTest.git(directory, "add", "-A");
+		ChangedFilesTest.git(directory, "-c", "user.name=Test", "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false", "commit", "-q", "-m", "Commit");
+	}
+	
+	private static final void git(Path directory, String... arguments) throws IOException {
+		
+		List<String> command = new ArrayList<>();
+		command.add("git");
+		command.addAll(Arrays.asList(arguments));
+		Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		
+		try {
+			
+			int exitCode = process.waitFor();
+			
+			if(exitCode != 0) {
+				
+				throw new IOException("git " + arguments[0] + " exited with " + exitCode);
+			}
+			
+		} catch(InterruptedException exception) {
+			
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for git", exception);
+		}
+	}
+}
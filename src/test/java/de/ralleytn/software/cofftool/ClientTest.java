@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the retry behavior of {@linkplain Client} against a local server that fails on purpose.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ClientTest {
+
+	private static final byte[] BODY = "{\"repo_token\":\"test\",\"source_files\":[]}".getBytes(StandardCharsets.UTF_8);
+	
+	private StubServer server;
+	private Client client;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.server = new StubServer();
+		this.client = new Client() {};
+		this.client.setTimeouts(5000, 5000);
+		this.client.setRetries(3, 10);
+	}
+	
+	@After
+	public void tearDown() {
+		
+		this.server.close();
+	}
+	
+	@Test
+	public void testPostIsRepeatedWhenRefused() throws IOException {
+		
+		this.server.respond(503, null).respond(429, "1").respond(200, null);
+		long start = System.currentTimeMillis();
+		HttpURLConnection connection = this.client.request(this.server.getURL(), "POST", ClientTest::writeBody, false);
+		
+		assertEquals(200, connection.getResponseCode());
+		assertTrue("Retry-After was ignored", System.currentTimeMillis() - start >= 1000);
+		
+		List<StubServer.Request> requests = this.server.getRequests();
+		assertEquals(3, requests.size());
+		
+		for(StubServer.Request request : requests) {
+			
+			assertEquals("POST", request.getMethod());
+			assertArrayEquals(ClientTest.BODY, request.getBody());
+		}
+	}
+	
+	@Test
+	public void testPostIsNotRepeatedAfterServerError() throws IOException {
+		
+		this.server.respond(500, null).respond(200, null);
+		HttpURLConnection connection = this.client.request(this.server.getURL(), "POST", ClientTest::writeBody, false);
+		
+		assertEquals(500, connection.getResponseCode());
+		assertEquals(1, this.server.getRequests().size());
+	}
+	
+	@Test
+	public void testPostIsNotRepeatedAfterDroppedConnection() {
+		
+		this.server.respond(StubServer.DROP, null).respond(200, null);
+		
+		try {
+			
+			this.client.request(this.server.getURL(), "POST", ClientTest::writeBody, false);
+			fail("The dropped connection was not reported");
+			
+		} catch(IOException exception) {
+			
+			// EXPECTED, THE SERVER MAY HAVE PROCESSED THE BODY ALREADY
+		}
+		
+		assertEquals(1, this.server.getRequests().size());
+	}
+	
+	@Test
+	public void testGetIsRepeatedAfterAnyFailure() throws IOException {
+		
+		this.server.respond(500, null).respond(StubServer.DROP, null).respond(200, null);
+		HttpURLConnection connection = this.client.request(this.server.getURL(), "GET", null, true);
+		
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(3, this.server.getRequests().size());
+	}
+	
+	@Test
+	public void testRetriesAreLimited() throws IOException {
+		
+		this.client.setRetries(2, 10);
+		this.server.respond(503, null).respond(503, null).respond(503, null).respond(200, null);
+		HttpURLConnection connection = this.client.request(this.server.getURL(), "POST", ClientTest::writeBody, false);
+		
+		assertEquals(503, connection.getResponseCode());
+		assertEquals(3, this.server.getRequests().size());
+	}
+	
+	private static final void writeBody(HttpURLConnection connection) throws IOException {
+		
+		// A STREAMED BODY CANNOT BE REPEATED BY THE JDK ITSELF, SO EVERY ATTEMPT IS VISIBLE TO THE SERVER
+		connection.setFixedLengthStreamingMode(ClientTest.BODY.length);
+		
+		try(OutputStream out = connection.getOutputStream()) {
+			
+			out.write(ClientTest.BODY);
+		}
+	}
+}
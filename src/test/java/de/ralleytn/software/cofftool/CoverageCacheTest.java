@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests when the entries of a {@linkplain CoverageCache} are reused, invalidated and evicted.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageCacheTest {
+
+	private Path root;
+	private File cacheDirectory;
+	private File sourceLocation;
+	private File first;
+	private File second;
+	private List<File> reports;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.root = Files.createTempDirectory("cofftool");
+		this.cacheDirectory = this.root.resolve("cache").toFile();
+		this.sourceLocation = Files.createDirectories(this.root.resolve("src/main/java")).toFile();
+		this.first = Files.write(this.sourceLocation.toPath().resolve("First.java"), "class First {}\n".getBytes(StandardCharsets.UTF_8)).toFile();
+		this.second = Files.write(this.sourceLocation.toPath().resolve("Second.java"), "class Second {}\n".getBytes(StandardCharsets.UTF_8)).toFile();
+		this.reports = Collections.singletonList(Files.write(this.root.resolve("jacoco.xml"), "<report/>".getBytes(StandardCharsets.UTF_8)).toFile());
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		try(Stream<Path> paths = Files.walk(this.root)) {
+			
+			for(Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				
+				Files.delete(path);
+			}
+		}
+	}
+	
+	@Test
+	public void testReuse() throws IOException {
+		
+		this.run(this.first, this.second);
+		
+		CoverageCache cache = this.load();
+		CachedSourceFile entry = cache.get(CoverageCacheTest.createSourceFile(this.first));
+		assertTrue(cache.isReportUnchanged());
+		assertTrue(cache.containsAll(Arrays.asList(CoverageCacheTest.createSourceFile(this.first), CoverageCacheTest.createSourceFile(this.second))));
+		assertNotNull(entry);
+		assertEquals("digest of First.java", entry.getSourceDigest());
+		assertEquals(3, entry.getLineCount());
+		assertArrayEquals(new int[] {1, 3}, entry.getCoverage().getLineNumbers());
+		assertArrayEquals(new int[] {5, 0}, entry.getCoverage().getHits());
+	}
+	
+	@Test
+	public void testChangedSize() throws IOException {
+		
+		this.run(this.first, this.second);
+		long lastModified = this.first.lastModified();
+		Files.write(this.first.toPath(), "// CHANGED\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertTrue(this.first.setLastModified(lastModified));
+		
+		CoverageCache cache = this.load();
+		assertNull(cache.get(CoverageCacheTest.createSourceFile(this.first)));
+		assertNotNull(cache.get(CoverageCacheTest.createSourceFile(this.second)));
+		assertFalse(cache.containsAll(Arrays.asList(CoverageCacheTest.createSourceFile(this.first), CoverageCacheTest.createSourceFile(this.second))));
+	}
+	
+	@Test
+	public void testChangedModificationTime() throws IOException {
+		
+		this.run(this.first, this.second);
+		assertTrue(this.first.setLastModified(this.first.lastModified() + 60000));
+		
+		CoverageCache cache = this.load();
+		assertNull(cache.get(CoverageCacheTest.createSourceFile(this.first)));
+		assertNotNull(cache.get(CoverageCacheTest.createSourceFile(this.second)));
+	}
+	
+	@Test
+	public void testChangedReport() throws IOException {
+		
+		this.run(this.first);
+		Files.write(this.reports.get(0).toPath(), "<report></report>".getBytes(StandardCharsets.UTF_8));
+		
+		// THE ENTRIES STAY VALID, ONLY THE CACHED COVERAGE MUST NOT BE REUSED
+		CoverageCache cache = this.load();
+		assertFalse(cache.isReportUnchanged());
+		assertNotNull(cache.get(CoverageCacheTest.createSourceFile(this.first)));
+	}
+	
+	@Test
+	public void testEviction() throws IOException {
+		
+		this.run(this.first, this.second);
+		this.run(this.first);
+		
+		// SECOND.JAVA IS UNCHANGED BUT WAS NOT PART OF THE SECOND RUN
+		CoverageCache cache = this.load();
+		assertNotNull(cache.get(CoverageCacheTest.createSourceFile(this.first)));
+		assertNull(cache.get(CoverageCacheTest.createSourceFile(this.second)));
+	}
+	
+	@Test
+	public void testLongReportKey() throws IOException {
+		
+		List<File> reports = new ArrayList<>();
+		
+		for(int index = 0; index < 2000; index++) {
+			
+			reports.add(this.root.resolve("reports/module-" + index + "/target/site/jacoco/jacoco.xml").toFile());
+		}
+		
+		this.reports = reports;
+		this.run(this.first);
+		
+		CoverageCache cache = this.load();
+		assertTrue(cache.isReportUnchanged());
+		assertNotNull(cache.get(CoverageCacheTest.createSourceFile(this.first)));
+	}
+	
+	private void run(File... sourceFiles) throws IOException {
+		
+		CoverageCache cache = this.load();
+		
+		for(File file : sourceFiles) {
+			
+			SourceFile sourceFile = CoverageCacheTest.createSourceFile(file);
+			SourceFileCoverage coverage = new SourceFileCoverage("", file.getName(), new int[] {1, 3}, new int[] {5, 0});
+			cache.put(sourceFile, new CachedSourceFile(sourceFile.getSize(), sourceFile.getLastModified(), "digest of " + file.getName(), 3, coverage));
+		}
+		
+		cache.save();
+	}
+	
+	private CoverageCache load() {
+		
+		CoverageCache cache = new CoverageCache(this.cacheDirectory);
+		cache.load(this.reports, CoverageMerger.Mode.SUM, this.sourceLocation.getPath());
+		return cache;
+	}
+	
+	private static final SourceFile createSourceFile(File file) throws IOException {
+		
+		return new SourceFile(file, Files.readAttributes(file.toPath(), BasicFileAttributes.class));
+	}
+}
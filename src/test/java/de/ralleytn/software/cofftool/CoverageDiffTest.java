@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the status that {@linkplain CoverageDiff} assigns to every source file and the lines it writes.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageDiffTest {
+
+	private static final String DIGEST = "0123456789abcdef0123456789abcdef";
+	private static final String CHANGED_DIGEST = "fedcba9876543210fedcba9876543210";
+	
+	private File directory;
+	private File baseline;
+	private File current;
+	private File output;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.directory = Files.createTempDirectory("cofftool").toFile();
+		this.baseline = new File(this.directory, "baseline.json");
+		this.current = new File(this.directory, "current.json");
+		this.output = new File(this.directory, "diff.json");
+		
+		CoverageDiffTest.write(this.baseline,
+			new SourceFileReport("de/example/Same.java", CoverageDiffTest.DIGEST, 5, new int[] {2, 3}, new int[] {1, 0}, 1, 1),
+			new SourceFileReport("de/example/Modified.java", CoverageDiffTest.DIGEST, 6, new int[] {2, 3, 5}, new int[] {0, 1, 2}, 2, 1),
+			new SourceFileReport("de/example/Changed.java", CoverageDiffTest.DIGEST, 4, new int[] {1}, new int[] {1}, 1, 0),
+			new SourceFileReport("de/example/Removed.java", CoverageDiffTest.DIGEST, 3, new int[] {1, 2}, new int[] {0, 0}, 0, 2));
+		
+		CoverageDiffTest.write(this.current,
+			new SourceFileReport("de/example/Added.java", CoverageDiffTest.DIGEST, 2, new int[] {1}, new int[] {4}, 1, 0),
+			new SourceFileReport("de/example/Same.java", CoverageDiffTest.DIGEST, 5, new int[] {2, 3}, new int[] {1, 0}, 1, 1),
+			new SourceFileReport("de/example/Modified.java", CoverageDiffTest.DIGEST, 6, new int[] {2, 3, 4}, new int[] {3, 1, 1}, 3, 0),
+			new SourceFileReport("de/example/Changed.java", CoverageDiffTest.CHANGED_DIGEST, 4, new int[] {1}, new int[] {1}, 1, 0));
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		for(File file : this.directory.listFiles()) {
+			
+			Files.delete(file.toPath());
+		}
+		
+		Files.delete(this.directory.toPath());
+	}
+	
+	@Test
+	public void testStatuses() throws IOException {
+		
+		CoverageDiff diff = new CoverageDiff(2);
+		diff.diff(this.baseline, this.current, this.output);
+		
+		assertEquals(1, diff.getCount(CoverageDiff.Status.UNCHANGED));
+		assertEquals(1, diff.getCount(CoverageDiff.Status.MODIFIED));
+		assertEquals(1, diff.getCount(CoverageDiff.Status.SOURCE_CHANGED));
+		assertEquals(1, diff.getCount(CoverageDiff.Status.ADDED));
+		assertEquals(1, diff.getCount(CoverageDiff.Status.REMOVED));
+		
+		String json = new String(Files.readAllBytes(this.output.toPath()), StandardCharsets.UTF_8);
+		
+		// UNCHANGED FILES ARE ONLY COUNTED, THE OTHERS ARE WRITTEN IN THE ORDER OF THE CURRENT REPORT FOLLOWED BY THE REMOVED FILES
+		assertFalse(json, json.contains("Same.java"));
+		assertTrue(json, json.indexOf("Added.java") < json.indexOf("Modified.java"));
+		assertTrue(json, json.indexOf("Modified.java") < json.indexOf("Changed.java"));
+		assertTrue(json, json.indexOf("Changed.java") < json.indexOf("Removed.java"));
+		assertTrue(json, json.contains("{\"name\":\"de/example/Added.java\",\"status\":\"added\",\"covered_before\":0,\"covered_after\":1,\"missed_before\":0,\"missed_after\":0}"));
+		assertTrue(json, json.contains("{\"name\":\"de/example/Changed.java\",\"status\":\"source_changed\",\"covered_before\":1,\"covered_after\":1,\"missed_before\":0,\"missed_after\":0}"));
+		assertTrue(json, json.contains("{\"name\":\"de/example/Removed.java\",\"status\":\"removed\",\"covered_before\":0,\"covered_after\":0,\"missed_before\":2,\"missed_after\":0}"));
+		
+		// A LINE THAT IS ONLY RELEVANT ON ONE SIDE HAS NULL HITS ON THE OTHER
+		assertTrue(json, json.contains("\"status\":\"modified\",\"covered_before\":2,\"covered_after\":3,\"missed_before\":1,\"missed_after\":0,\"lines\":[[2,0,3],[4,null,1],[5,2,null]]}"));
+		assertTrue(json, json.endsWith("\"summary\":{\"unchanged\":1,\"modified\":1,\"source_changed\":1,\"added\":1,\"removed\":1,\"covered_before\":4,\"covered_after\":6,\"missed_before\":4,\"missed_after\":1}}"));
+	}
+	
+	@Test
+	public void testSnapshots() throws IOException {
+		
+		// A SNAPSHOT IS COMPARED LIKE THE REPORT IT WAS CONVERTED FROM
+		File baseline = Snapshots.convert(this.baseline, null);
+		File current = Snapshots.convert(this.current, null);
+		CoverageDiff diff = new CoverageDiff(1);
+		diff.diff(baseline, current, this.output);
+		
+		for(CoverageDiff.Status status : CoverageDiff.Status.values()) {
+			
+			assertEquals(status.name(), 1, diff.getCount(status));
+		}
+	}
+	
+	private static final void write(File file, SourceFileReport... sourceFiles) throws IOException {
+		
+		try(ReportWriter writer = new ReportWriter(file, "")) {
+			
+			for(SourceFileReport sourceFile : sourceFiles) {
+				
+				writer.write(sourceFile);
+			}
+			
+			writer.finish(1);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+/**
+ * Tests how {@linkplain CoverageMerger} combines reports and that it treats a source file that appears twice in one report like {@linkplain CoverageIndex}.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverageMergerTest {
+
+	private static final String FIRST =
+		"<report name=\"first\">" +
+			"<package name=\"de/example\">" +
+				"<sourcefile name=\"A.java\"><line nr=\"3\" mi=\"0\" ci=\"2\"/><line nr=\"4\" mi=\"1\" ci=\"0\"/></sourcefile>" +
+			"</package>" +
+		"</report>";
+	
+	private static final String SECOND =
+		"<report name=\"second\">" +
+			"<package name=\"de/example\">" +
+				"<sourcefile name=\"A.java\"><line nr=\"3\" mi=\"0\" ci=\"5\"/><line nr=\"5\" mi=\"0\" ci=\"1\"/></sourcefile>" +
+				"<sourcefile name=\"B.java\"><line nr=\"1\" mi=\"1\" ci=\"0\"/></sourcefile>" +
+			"</package>" +
+		"</report>";
+	
+	// THE SAME SOURCE FILE TWICE, LIKE IN THE AGGREGATED REPORT OF TWO MODULES WITH THE SAME PACKAGE
+	private static final String DUPLICATE =
+		"<report name=\"duplicate\">" +
+			"<package name=\"de/example\">" +
+				"<sourcefile name=\"A.java\"><line nr=\"3\" mi=\"0\" ci=\"2\"/></sourcefile>" +
+			"</package>" +
+			"<package name=\"de/example\">" +
+				"<sourcefile name=\"A.java\"><line nr=\"3\" mi=\"0\" ci=\"7\"/><line nr=\"9\" mi=\"0\" ci=\"1\"/></sourcefile>" +
+			"</package>" +
+		"</report>";
+	
+	@Test
+	public void testSum() throws XMLStreamException {
+		
+		Map<String, SourceFileCoverage> merged = CoverageMergerTest.merge(CoverageMerger.Mode.SUM, CoverageMergerTest.FIRST, CoverageMergerTest.SECOND);
+		assertEquals(2, merged.size());
+		assertArrayEquals(new int[] {3, 4, 5}, merged.get("de/example/A.java").getLineNumbers());
+		assertArrayEquals(new int[] {7, 0, 1}, merged.get("de/example/A.java").getHits());
+		assertArrayEquals(new int[] {0}, merged.get("de/example/B.java").getHits());
+	}
+	
+	@Test
+	public void testAny() throws XMLStreamException {
+		
+		Map<String, SourceFileCoverage> merged = CoverageMergerTest.merge(CoverageMerger.Mode.ANY, CoverageMergerTest.FIRST, CoverageMergerTest.SECOND);
+		assertArrayEquals(new int[] {3, 4, 5}, merged.get("de/example/A.java").getLineNumbers());
+		assertArrayEquals(new int[] {5, 0, 1}, merged.get("de/example/A.java").getHits());
+	}
+	
+	@Test
+	public void testDuplicateInOneReport() throws XMLStreamException {
+		
+		CoverageIndex index = new CoverageIndex();
+		new ReportReader().read(CoverageMergerTest.toStream(CoverageMergerTest.DUPLICATE), index);
+		Map<String, SourceFileCoverage> merged = CoverageMergerTest.merge(CoverageMerger.Mode.SUM, CoverageMergerTest.DUPLICATE);
+		
+		// A SINGLE REPORT THAT IS READ INTO THE INDEX AND A SINGLE REPORT THAT IS MERGED GIVE THE SAME COVERAGE
+		assertEquals(1, index.size());
+		assertArrayEquals(new int[] {3}, index.get("de/example/A.java").getLineNumbers());
+		assertArrayEquals(new int[] {2}, index.get("de/example/A.java").getHits());
+		assertArrayEquals(index.get("de/example/A.java").getLineNumbers(), merged.get("de/example/A.java").getLineNumbers());
+		assertArrayEquals(index.get("de/example/A.java").getHits(), merged.get("de/example/A.java").getHits());
+	}
+	
+	@Test
+	public void testDuplicateInSeveralReports() throws XMLStreamException {
+		
+		// ONLY THE FIRST OCCURRENCE IN EVERY REPORT IS MERGED WITH THE OTHER REPORTS
+		Map<String, SourceFileCoverage> merged = CoverageMergerTest.merge(CoverageMerger.Mode.SUM, CoverageMergerTest.DUPLICATE, CoverageMergerTest.FIRST);
+		assertArrayEquals(new int[] {3, 4}, merged.get("de/example/A.java").getLineNumbers());
+		assertArrayEquals(new int[] {4, 0}, merged.get("de/example/A.java").getHits());
+		assertNull(merged.get("de/example/B.java"));
+	}
+	
+	private static final Map<String, SourceFileCoverage> merge(CoverageMerger.Mode mode, String... reports) throws XMLStreamException {
+		
+		CoverageMerger merger = new CoverageMerger(mode);
+		
+		for(String report : reports) {
+			
+			new ReportReader().read(CoverageMergerTest.toStream(report), merger.forReport());
+		}
+		
+		Map<String, SourceFileCoverage> merged = new HashMap<>();
+		merger.forEach(coverage -> merged.put(coverage.getName(), coverage));
+		return merged;
+	}
+	
+	private static final ByteArrayInputStream toStream(String report) {
+		
+		return new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8));
+	}
+}
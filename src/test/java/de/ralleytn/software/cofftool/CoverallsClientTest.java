@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the submission of a report with {@linkplain CoverallsClient} against a local server.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CoverallsClientTest {
+
+	private StubServer server;
+	private CoverallsClient client;
+	private File report;
+	private byte[] content;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.server = new StubServer();
+		this.client = new CoverallsClient(this.server.getURL());
+		this.client.setRetries(0, 10);
+		this.report = new File(Files.createTempDirectory("cofftool").toFile(), "coveralls.json");
+		
+		// LARGE ENOUGH TO BE SENT IN SEVERAL CHUNKS AND GOOD TO COMPRESS
+		StringBuilder json = new StringBuilder("{\"service_job_id\":\"1\",\"service_name\":\"travis-ci\",\"source_files\":[");
+		
+		for(int index = 0; index < 5000; index++) {
+			
+			json.append(index > 0 ? "," : "").append("{\"name\":\"de/example/Class").append(index).append(".java\",\"source_digest\":\"0\",\"coverage\":[null,1,0]}");
+		}
+		
+		this.content = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+		Files.write(this.report.toPath(), this.content);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		this.server.close();
+		Files.deleteIfExists(this.report.toPath());
+		Files.deleteIfExists(this.report.getParentFile().toPath());
+	}
+	
+	@Test
+	public void testSubmitCompressed() throws IOException {
+		
+		assertTrue(this.client.submitCoverageReport(this.report, true));
+		
+		StubServer.Request request = this.server.getRequests().get(0);
+		byte[] part = this.getPart(request, "json_file", "coveralls.json.gz", "application/gzip");
+		
+		assertArrayEquals(this.content, CoverallsClientTest.inflate(part));
+		assertTrue("The report was not compressed", part.length < this.content.length);
+		assertEquals(request.getBody().length, this.client.getBytesSent());
+	}
+	
+	@Test
+	public void testSubmitUncompressed() throws IOException {
+		
+		assertTrue(this.client.submitCoverageReport(this.report, false));
+		
+		StubServer.Request request = this.server.getRequests().get(0);
+		assertArrayEquals(this.content, this.getPart(request, "json_file", "coveralls.json", "application/json; charset=UTF-8"));
+		assertEquals(request.getBody().length, this.client.getBytesSent());
+	}
+	
+	/**
+	 * Extracts the only part of a multipart form and checks its headers.
+	 * @param request the request that contains the form
+	 * @param name the expected parameter name
+	 * @param fileName the expected file name
+	 * @param contentType the expected content type
+	 * @return the content of the part
+	 * @since 1.2.0
+	 */
+	private byte[] getPart(StubServer.Request request, String name, String fileName, String contentType) {
+		
+		String formType = request.getHeader("Content-Type");
+		assertTrue("Not a multipart form: " + formType, formType.startsWith("multipart/form-data; boundary="));
+		String boundary = formType.substring(formType.indexOf('=') + 1);
+		
+		// ISO-8859-1 MAPS EVERY BYTE TO ONE CHARACTER, SO THE INDICES OF THE STRING ARE THE INDICES OF THE BODY
+		byte[] body = request.getBody();
+		String form = new String(body, StandardCharsets.ISO_8859_1);
+		String headers = "--" + boundary + "\r\n"
+		               + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+		               + "Content-Type: " + contentType + "\r\n"
+		               + "Content-Transfer-Encoding: binary\r\n\r\n";
+		String end = "\r\n--" + boundary + "--";
+		
+		assertTrue("Unexpected part headers", form.startsWith(headers));
+		assertTrue("Missing closing boundary", form.endsWith(end));
+		
+		return Arrays.copyOfRange(body, headers.length(), body.length - end.length());
+	}
+	
+	private static final byte[] inflate(byte[] compressed) throws IOException {
+		
+		ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+		
+		try(InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			
+			in.transferTo(inflated);
+		}
+		
+		return inflated.toByteArray();
+	}
+}
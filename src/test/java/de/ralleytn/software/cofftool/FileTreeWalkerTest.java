@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests which source files {@linkplain FileTreeWalker} finds.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class FileTreeWalkerTest {
+
+	private Path root;
+	private Path outside;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.root = Files.createTempDirectory("cofftool");
+		this.outside = Files.createTempDirectory("cofftool");
+		Files.createDirectories(this.root.resolve("de/example"));
+		Files.createDirectories(this.root.resolve("excluded"));
+		Files.createDirectories(this.outside.resolve("shared"));
+		Files.write(this.root.resolve("de/example/A.java"), Arrays.asList("class A {}"));
+		Files.write(this.root.resolve("de/example/readme.txt"), Arrays.asList("text"));
+		Files.write(this.root.resolve("excluded/B.java"), Arrays.asList("class B {}"));
+		Files.write(this.root.resolve("module-info.java"), Arrays.asList("module example {}"));
+		Files.write(this.outside.resolve("shared/C.java"), Arrays.asList("class C {}"));
+		Files.write(this.outside.resolve("D.java"), Arrays.asList("class D {}"));
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		FileTreeWalkerTest.delete(this.root);
+		FileTreeWalkerTest.delete(this.outside);
+	}
+	
+	@Test
+	public void testWalk() throws IOException {
+		
+		FileTreeWalker walker = new FileTreeWalker(Collections.emptyList(), Arrays.asList("excluded"));
+		assertEquals(Arrays.asList("de/example/A.java"), this.walk(walker, 1));
+		assertEquals(Arrays.asList("de/example/A.java"), this.walk(walker, 4));
+	}
+	
+	@Test
+	public void testInclude() throws IOException {
+		
+		FileTreeWalker walker = new FileTreeWalker(Arrays.asList("**.txt", "excluded/*"), Collections.emptyList());
+		assertEquals(Arrays.asList("de/example/readme.txt", "excluded/B.java"), this.walk(walker, 2));
+	}
+	
+	@Test
+	public void testSymbolicLinksAreFollowed() throws IOException {
+		
+		FileTreeWalkerTest.link(this.root.resolve("de/example/D.java"), this.outside.resolve("D.java"));
+		FileTreeWalkerTest.link(this.root.resolve("de/shared"), this.outside.resolve("shared"));
+		
+		// BOTH LINKS LEAD BACK INTO THE TREE AND WOULD NEVER END
+		FileTreeWalkerTest.link(this.root.resolve("de/example/loop"), this.root.resolve("de"));
+		FileTreeWalkerTest.link(this.root.resolve("de/example/self"), this.root.resolve("de/example"));
+		
+		FileTreeWalker walker = new FileTreeWalker(Collections.emptyList(), Arrays.asList("excluded"));
+		assertEquals(Arrays.asList("de/example/A.java", "de/example/D.java", "de/shared/C.java"), this.walk(walker, 4));
+	}
+	
+	private List<String> walk(FileTreeWalker walker, int threads) throws IOException {
+		
+		List<String> names = new ArrayList<>();
+		
+		for(SourceFile sourceFile : walker.walk(this.root, threads)) {
+			
+			names.add(this.root.relativize(sourceFile.getFile().toPath()).toString().replace('\\', '/'));
+		}
+		
+		return names;
+	}
+	
+	private static final void link(Path link, Path target) throws IOException {
+		
+		try {
+			
+			Files.createSymbolicLink(link, target);
+			
+		} catch(UnsupportedOperationException | IOException exception) {
+			
+			assumeTrue("Symbolic links are not supported: " + exception.getMessage(), false);
+		}
+	}
+	
+	private static final void delete(Path directory) throws IOException {
+		
+		// LINKS ARE DELETED THEMSELVES, THEIR TARGETS ARE NOT FOLLOWED
+		try(Stream<Path> paths = Files.walk(directory)) {
+			
+			for(Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,344 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Tests {@linkplain JSONWriter} and {@linkplain JSONReader} against each other and against malformed documents.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class JSONTest {
+
+	private static final String[] STRINGS = {
+		"",
+		"plain",
+		"quote \" backslash \\ slash /",
+		"line\nfeed\rtab\tback\bform\f",
+		"control \u0000 \u0001 \u001f \u007f",
+		"umlauts \u00e4\u00f6\u00fc and \u20ac",
+		"surrogate pair \ud83d\ude00 in the middle"
+	};
+	
+	private static final long[] NUMBERS = {0, 1, -1, 9, 10, 1234567890123L, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+	
+	@Test
+	public void testStringsRoundTrip() throws IOException {
+		
+		StringWriter json = new StringWriter();
+		
+		try(JSONWriter writer = new JSONWriter(json)) {
+			
+			writer.beginObject();
+			
+			for(String value : JSONTest.STRINGS) {
+				
+				// EVERY STRING IS ALSO USED AS A NAME, BECAUSE NAMES ARE ESCAPED THE SAME WAY
+				writer.name(value);
+				writer.value(value);
+			}
+			
+			writer.endObject();
+		}
+		
+		assertFalse("Unescaped control character in " + json, json.toString().chars().anyMatch(character -> character < 0x20));
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json.toString()))) {
+			
+			reader.beginObject();
+			
+			for(String value : JSONTest.STRINGS) {
+				
+				assertEquals(value, reader.nextName());
+				assertEquals(value, reader.nextString());
+			}
+			
+			reader.endObject();
+			assertEquals(JSONReader.Token.END_DOCUMENT, reader.peek());
+		}
+	}
+	
+	@Test
+	public void testEscapesThatAreNeverWritten() throws IOException {
+		
+		String json = "[\"\\/\", \"\\u00e4\\u20AC\", \"\\ud83d\\ude00\", \"\\\"\"]";
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json))) {
+			
+			reader.beginArray();
+			assertEquals("/", reader.nextString());
+			assertEquals("\u00e4\u20ac", reader.nextString());
+			assertEquals("\ud83d\ude00", reader.nextString());
+			assertEquals("\"", reader.nextString());
+			reader.endArray();
+		}
+	}
+	
+	@Test
+	public void testNumbersRoundTrip() throws IOException {
+		
+		StringWriter json = new StringWriter();
+		
+		try(JSONWriter writer = new JSONWriter(json)) {
+			
+			writer.beginArray();
+			
+			for(long value : JSONTest.NUMBERS) {
+				
+				writer.value(value);
+			}
+			
+			writer.endArray();
+		}
+		
+		assertEquals("[0,1,-1,9,10,1234567890123,2147483647,-2147483648,9223372036854775807,-9223372036854775808]", json.toString());
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json.toString()))) {
+			
+			reader.beginArray();
+			
+			for(long value : JSONTest.NUMBERS) {
+				
+				assertEquals(JSONReader.Token.NUMBER, reader.peek());
+				assertEquals(value, reader.nextLong());
+			}
+			
+			reader.endArray();
+		}
+	}
+	
+	@Test
+	public void testNumbersAsStrings() throws IOException {
+		
+		try(JSONReader reader = new JSONReader(new StringReader("[\"42\", 1.5e3, -0]"))) {
+			
+			reader.beginArray();
+			assertEquals(42, reader.nextLong());
+			assertEquals("1.5e3", reader.nextString());
+			assertEquals(0, reader.nextLong());
+			reader.endArray();
+		}
+	}
+	
+	@Test
+	public void testCoverageArrays() throws IOException {
+		
+		StringWriter json = new StringWriter();
+		
+		try(JSONWriter writer = new JSONWriter(json)) {
+			
+			writer.beginObject();
+			writer.name("dense");
+			writer.value(new int[] {-1, 0, 3, -1}, -1);
+			writer.name("sparse");
+			writer.value(5, new int[] {2, 3, 5}, new int[] {0, 7, 1});
+			writer.name("empty");
+			writer.value(0, new int[0], new int[0]);
+			writer.endObject();
+		}
+		
+		assertEquals("{\"dense\":[null,0,3,null],\"sparse\":[null,0,7,null,1],\"empty\":[]}", json.toString());
+	}
+	
+	@Test
+	public void testNesting() throws IOException {
+		
+		int depth = 100;
+		StringWriter json = new StringWriter();
+		
+		try(JSONWriter writer = new JSONWriter(json)) {
+			
+			for(int level = 0; level < depth; level++) {
+				
+				writer.beginObject();
+				writer.name("level");
+				writer.value(level);
+				writer.name("values");
+				writer.beginArray();
+				writer.value(true);
+				writer.nullValue();
+				writer.beginArray();
+				writer.endArray();
+				writer.beginObject();
+				writer.endObject();
+				writer.endArray();
+				writer.name("child");
+			}
+			
+			writer.nullValue();
+			
+			for(int level = 0; level < depth; level++) {
+				
+				writer.endObject();
+			}
+		}
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json.toString()))) {
+			
+			for(int level = 0; level < depth; level++) {
+				
+				reader.beginObject();
+				assertEquals("level", reader.nextName());
+				assertEquals(level, reader.nextLong());
+				assertEquals("values", reader.nextName());
+				reader.beginArray();
+				assertTrue(reader.nextBoolean());
+				reader.nextNull();
+				reader.beginArray();
+				assertFalse(reader.hasNext());
+				reader.endArray();
+				reader.skipValue();
+				assertFalse(reader.hasNext());
+				reader.endArray();
+				assertEquals("child", reader.nextName());
+			}
+			
+			reader.nextNull();
+			
+			for(int level = 0; level < depth; level++) {
+				
+				assertFalse(reader.hasNext());
+				reader.endObject();
+			}
+			
+			assertEquals(JSONReader.Token.END_DOCUMENT, reader.peek());
+		}
+	}
+	
+	@Test
+	public void testSkipValue() throws IOException {
+		
+		String json = "{\"skipped\": {\"a\": [1, {\"b\": \"]}\"}, [], null, false]}, \"kept\": \"value\"}";
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json))) {
+			
+			reader.beginObject();
+			assertEquals("skipped", reader.nextName());
+			reader.skipValue();
+			assertEquals("kept", reader.nextName());
+			assertEquals("value", reader.nextString());
+			reader.endObject();
+		}
+	}
+	
+	@Test
+	public void testValuesAcrossTheBuffer() throws IOException {
+		
+		// THE READER FILLS A BUFFER OF 8192 CHARACTERS, SO THESE VALUES ARE SPLIT BETWEEN TWO READS
+		StringBuilder padding = new StringBuilder();
+		
+		for(int index = 0; index < 8185; index++) {
+			
+			padding.append(' ');
+		}
+		
+		StringBuilder longString = new StringBuilder();
+		
+		for(int index = 0; index < 20000; index++) {
+			
+			longString.append((char)('a' + index % 26));
+		}
+		
+		String json = "[" + padding + "123456789, \"\\u00e4\", \"" + longString + "\", true]";
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json))) {
+			
+			reader.beginArray();
+			assertEquals(123456789, reader.nextLong());
+			assertEquals("\u00e4", reader.nextString());
+			assertEquals(longString.toString(), reader.nextString());
+			assertTrue(reader.nextBoolean());
+			reader.endArray();
+		}
+	}
+	
+	@Test
+	public void testMalformedDocuments() {
+		
+		JSONTest.assertMalformed("[1 2]", "Expected ',' or ']' but was '2' at position 4");
+		JSONTest.assertMalformed("[1,]", "Expected a value but was ']' at position 4");
+		JSONTest.assertMalformed("{\"a\" 1}", "Expected ':' but was '1' at position 6");
+		JSONTest.assertMalformed("{\"a\":1 \"b\":2}", "Expected ',' or '}' but was '\"' at position 8");
+		JSONTest.assertMalformed("{a:1}", "Expected a name but was 'a' at position 2");
+		JSONTest.assertMalformed("[\"abc", "Unterminated string at position 5");
+		JSONTest.assertMalformed("[\"a\\x\"]", "Invalid escape sequence but was 'x' at position 5");
+		JSONTest.assertMalformed("[\"\\u12g4\"]", "Invalid unicode escape sequence at position 7");
+		JSONTest.assertMalformed("[tru]", "Expected a boolean but was tru at position 4");
+		JSONTest.assertMalformed("[nul]", "Expected null but was nul at position 4");
+		JSONTest.assertMalformed("[1.5]", "Expected an integer but was 1.5 at position 4");
+		JSONTest.assertMalformed("[1] x", "Expected the end of the document but was 'x' at position 5");
+		JSONTest.assertMalformed("[1", "Unexpected end of the document at position 2");
+		JSONTest.assertMalformed("", "Unexpected end of the document at position 0");
+	}
+	
+	/**
+	 * Reads a whole document and expects it to fail.
+	 * @param json the malformed document
+	 * @param message the expected message of the exception
+	 * @since 1.2.0
+	 */
+	private static final void assertMalformed(String json, String message) {
+		
+		try(JSONReader reader = new JSONReader(new StringReader(json))) {
+			
+			JSONTest.readAll(reader);
+			fail("No exception for " + json);
+			
+		} catch(IOException exception) {
+			
+			assertEquals(json, message, exception.getMessage());
+		}
+	}
+	
+	private static final void readAll(JSONReader reader) throws IOException {
+		
+		while(true) {
+			
+			switch(reader.peek()) {
+			
+				case BEGIN_OBJECT: reader.beginObject(); break;
+				case BEGIN_ARRAY: reader.beginArray(); break;
+				case END_OBJECT: reader.endObject(); break;
+				case END_ARRAY: reader.endArray(); break;
+				case NAME: reader.nextName(); break;
+				case STRING: reader.nextString(); break;
+				case NUMBER: reader.nextLong(); break;
+				case BOOLEAN: reader.nextBoolean(); break;
+				case NULL: reader.nextNull(); break;
+				default: return;
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests how {@linkplain Metrics} measures the time of a stage.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class MetricsTest {
+
+	private static final long MILLIS = 1000000;
+	
+	@Test
+	public void testOverlappingIntervalsAreCountedOnce() {
+		
+		Metrics metrics = new Metrics();
+		
+		// TWO MODULES THAT PARSED THEIR REPORTS FOR 100 MS WHILE A THIRD ONE PARSED ITS REPORT FOR ONE SECOND
+		long now = System.nanoTime();
+		metrics.stop(Metrics.Stage.XML_PARSE, now - 100 * MetricsTest.MILLIS);
+		metrics.stop(Metrics.Stage.XML_PARSE, now - 100 * MetricsTest.MILLIS);
+		metrics.stop(Metrics.Stage.XML_PARSE, now - 1000 * MetricsTest.MILLIS);
+		
+		long time = metrics.getTime(Metrics.Stage.XML_PARSE);
+		long cpuTime = metrics.getCPUTime(Metrics.Stage.XML_PARSE);
+		assertTrue("Time: " + time, time >= 1000 * MetricsTest.MILLIS && time < 1100 * MetricsTest.MILLIS);
+		assertTrue("CPU time: " + cpuTime, cpuTime >= 1200 * MetricsTest.MILLIS);
+	}
+	
+	@Test
+	public void testPerFileStagesHaveNoTime() {
+		
+		Metrics metrics = new Metrics();
+		metrics.stop(Metrics.Stage.DIGESTING, System.nanoTime() - 10 * MetricsTest.MILLIS);
+		
+		assertEquals(-1, metrics.getTime(Metrics.Stage.DIGESTING));
+		assertTrue(metrics.getCPUTime(Metrics.Stage.DIGESTING) >= 10 * MetricsTest.MILLIS);
+		assertEquals(0, metrics.getTime(Metrics.Stage.UPLOAD));
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a large report that is split into chunks is read exactly like it is read by a single thread.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReportReaderTest {
+
+	private static final int THREADS = 4;
+	private static final int PACKAGES = 300;
+	private static final int SOURCE_FILES = 40;
+	private static final int LINES = 20;
+	
+	private File report;
+	private ExecutorService executor;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.report = File.createTempFile("jacoco", ".xml");
+		this.executor = Executors.newFixedThreadPool(ReportReaderTest.THREADS);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		this.executor.shutdownNow();
+		Files.delete(this.report.toPath());
+	}
+	
+	@Test
+	public void testChunks() throws IOException, XMLStreamException {
+		
+		ReportReaderTest.writeReport(this.report, -1);
+		assertTrue(this.report.length() >= ReportReader.MIN_CHUNK_SIZE * 2L);
+		
+		List<String> single = new ArrayList<>();
+		List<String> chunked = new ArrayList<>();
+		new ReportReader().read(this.report, coverage -> single.add(ReportReaderTest.toString(coverage)));
+		new ReportReader().read(this.report, coverage -> chunked.add(ReportReaderTest.toString(coverage)), this.executor, ReportReaderTest.THREADS);
+		
+		// SAME SOURCE FILES, SAME COVERAGE AND SAME ORDER
+		assertEquals(ReportReaderTest.PACKAGES * ReportReaderTest.SOURCE_FILES, single.size());
+		assertEquals(single, chunked);
+	}
+	
+	@Test
+	public void testInvalidChunk() throws IOException, XMLStreamException {
+		
+		// THE INVALID LINE IS IN THE LAST PACKAGE, SO IT IS NOT IN THE FIRST CHUNK
+		ReportReaderTest.writeReport(this.report, ReportReaderTest.PACKAGES - 1);
+		
+		try {
+			
+			new ReportReader().read(this.report, coverage -> {}, this.executor, ReportReaderTest.THREADS);
+			fail("An invalid report was accepted");
+			
+		} catch(IOException exception) {
+			
+			assertTrue(exception.getMessage(), exception.getMessage().startsWith("Invalid report " + this.report.getPath() + " in the chunk that starts at byte "));
+			assertTrue(exception.getCause() instanceof XMLStreamException);
+		}
+	}
+	
+	private static final void writeReport(File file, int invalidPackage) throws IOException {
+		
+		// A REPORT THAT IS LARGE ENOUGH TO BE SPLIT, WITH AN INVALID HIT COUNT IN THE GIVEN PACKAGE
+		try(Writer out = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><report name=\"large\"><sessioninfo id=\"test\" start=\"0\" dump=\"1\"/>\n");
+			
+			for(int packageIndex = 0; packageIndex < ReportReaderTest.PACKAGES; packageIndex++) {
+				
+				out.write("<package name=\"de/example/p" + packageIndex + "\">\n");
+				
+				for(int classIndex = 0; classIndex < ReportReaderTest.SOURCE_FILES; classIndex++) {
+					
+					out.write("<class name=\"de/example/p" + packageIndex + "/C" + classIndex + "\" sourcefilename=\"C" + classIndex + ".java\"><method name=\"run\" desc=\"()V\" line=\"1\"><counter type=\"LINE\" missed=\"1\" covered=\"1\"/></method></class>\n");
+				}
+				
+				for(int sourceIndex = 0; sourceIndex < ReportReaderTest.SOURCE_FILES; sourceIndex++) {
+					
+					out.write("<sourcefile name=\"C" + sourceIndex + ".java\">\n");
+					
+					for(int line = 1; line <= ReportReaderTest.LINES; line++) {
+						
+						String hits = packageIndex == invalidPackage && sourceIndex == 0 && line == 1 ? "x" : Integer.toString((packageIndex * 31 + sourceIndex * 7 + line) % 5);
+						out.write("<line nr=\"" + (line * 2) + "\" mi=\"0\" ci=\"" + hits + "\" mb=\"0\" cb=\"0\"/>\n");
+					}
+					
+					out.write("<counter type=\"LINE\" missed=\"0\" covered=\"" + ReportReaderTest.LINES + "\"/></sourcefile>\n");
+				}
+				
+				out.write("</package>\n");
+			}
+			
+			out.write("</report>\n");
+		}
+	}
+	
+	private static final String toString(SourceFileCoverage coverage) {
+		
+		return coverage.getName() + Arrays.toString(coverage.getLineNumbers()) + Arrays.toString(coverage.getHits());
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that {@linkplain ReportWriter} only replaces a report once the new one is complete.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReportWriterTest {
+
+	private static final byte[] PREVIOUS = "{\"source_files\":[],\"service_job_id\":1,\"service_name\":\"travis-ci\"}".getBytes(StandardCharsets.UTF_8);
+	
+	private File directory;
+	private File report;
+	private File snapshot;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.directory = Files.createTempDirectory("cofftool").toFile();
+		this.report = new File(this.directory, "coveralls.json");
+		this.snapshot = Snapshots.getSnapshotFile(this.report);
+		Files.write(this.report.toPath(), ReportWriterTest.PREVIOUS);
+		Files.write(this.snapshot.toPath(), ReportWriterTest.PREVIOUS);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		for(File file : this.directory.listFiles()) {
+			
+			Files.delete(file.toPath());
+		}
+		
+		Files.delete(this.directory.toPath());
+	}
+	
+	@Test
+	public void testFinishedReportReplacesPrevious() throws IOException {
+		
+		try(ReportWriter writer = new ReportWriter(this.report)) {
+			
+			writer.setSnapshot(new SnapshotWriter(this.snapshot));
+			writer.write(ReportWriterTest.createSourceFile());
+			writer.finish(42);
+		}
+		
+		String json = new String(Files.readAllBytes(this.report.toPath()), StandardCharsets.UTF_8);
+		assertTrue(json, json.contains("\"name\":\"src/main/java/de/example/Example.java\""));
+		assertTrue(json, json.endsWith("\"service_job_id\":42,\"service_name\":\"travis-ci\"}"));
+		assertEquals(42, new SnapshotReader(this.snapshot).getServiceJobId());
+		assertEquals(2, this.directory.list().length);
+	}
+	
+	@Test
+	public void testUnfinishedReportKeepsPrevious() throws IOException {
+		
+		try {
+			
+			try(ReportWriter writer = new ReportWriter(this.report)) {
+				
+				writer.setSnapshot(new SnapshotWriter(this.snapshot));
+				writer.write(ReportWriterTest.createSourceFile());
+				
+				// LIKE A FAILED LOOKUP OF THE SERVICE JOB ID
+				throw new IOException("Lookup failed");
+			}
+			
+		} catch(IOException exception) {
+			
+			assertEquals("Lookup failed", exception.getMessage());
+		}
+		
+		assertArrayEquals(ReportWriterTest.PREVIOUS, Files.readAllBytes(this.report.toPath()));
+		assertArrayEquals(ReportWriterTest.PREVIOUS, Files.readAllBytes(this.snapshot.toPath()));
+		assertEquals("Temporary files were left behind", 2, this.directory.list().length);
+	}
+	
+	private static final SourceFileReport createSourceFile() {
+		
+		return new SourceFileReport("de/example/Example.java", "0123456789abcdef0123456789abcdef", 4, new int[] {2, 3}, new int[] {1, 0}, 1, 1);
+	}
+}
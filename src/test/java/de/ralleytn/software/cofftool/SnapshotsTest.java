@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that {@linkplain Snapshots#convert(File, File)} converts between Coveralls reports and snapshots without losing anything.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SnapshotsTest {
+
+	private static final long SERVICE_JOB_ID = 1234567890123L;
+	private static final int TRAILER_SIZE = 24;
+	
+	private File directory;
+	private File report;
+	private List<SourceFileReport> sourceFiles;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		this.directory = Files.createTempDirectory("cofftool").toFile();
+		this.report = new File(this.directory, "coveralls.json");
+		this.sourceFiles = new ArrayList<>();
+		
+		// AN EMPTY FILE AND A FILE WITHOUT ANY RELEVANT LINE
+		this.sourceFiles.add(new SourceFileReport("src/main/java/de/example/Empty.java", "d41d8cd98f00b204e9800998ecf8427e", 0, new int[0], new int[0], 0, 0));
+		this.sourceFiles.add(new SourceFileReport("src/main/java/de/example/package-info.java", "ffffffffffffffffffffffffffffffff", 7, new int[0], new int[0], 0, 0));
+		
+		// HIT COUNTS THAT NEED ONE TO FIVE BYTES, A RUN OF EQUAL HIT COUNTS AND A RELEVANT LAST LINE
+		this.sourceFiles.add(new SourceFileReport("src/main/java/de/example/Hot.java", "0123456789abcdef0123456789abcdef", 12,
+			new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 12},
+			new int[] {0, 126, 127, 128, 16383, 16384, 2097152, Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, 5}, 9, 1));
+		
+		// ENOUGH FILES FOR A LARGE OFFSET TABLE AND NAMES WITH MULTI BYTE CHARACTERS
+		for(int index = 0; index < 300; index++) {
+			
+			int lineCount = 10 + index;
+			int[] lineNumbers = {3, 4, lineCount};
+			int[] hits = {index, index, 0};
+			this.sourceFiles.add(new SourceFileReport("src/main/java/de/example/Übung" + index + ".java", String.format("%032x", index), lineCount, lineNumbers, hits, index > 0 ? 2 : 0, index > 0 ? 1 : 3));
+		}
+		
+		try(ReportWriter writer = new ReportWriter(this.report, "")) {
+			
+			for(SourceFileReport sourceFile : this.sourceFiles) {
+				
+				writer.write(sourceFile);
+			}
+			
+			writer.finish(SnapshotsTest.SERVICE_JOB_ID);
+		}
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		for(File file : this.directory.listFiles()) {
+			
+			Files.delete(file.toPath());
+		}
+		
+		Files.delete(this.directory.toPath());
+	}
+	
+	@Test
+	public void testReportRoundTrip() throws IOException {
+		
+		File snapshot = Snapshots.convert(this.report, null);
+		File report = Snapshots.convert(snapshot, new File(this.directory, "converted.json"));
+		
+		assertEquals(new File(this.directory, "coveralls.bin"), snapshot);
+		assertTrue(Snapshots.isSnapshot(snapshot));
+		assertArrayEquals(Files.readAllBytes(this.report.toPath()), Files.readAllBytes(report.toPath()));
+	}
+	
+	@Test
+	public void testSnapshotRoundTrip() throws IOException {
+		
+		File snapshot = Snapshots.convert(this.report, null);
+		File report = Snapshots.convert(snapshot, new File(this.directory, "converted.json"));
+		File converted = Snapshots.convert(report, new File(this.directory, "converted.bin"));
+		
+		assertArrayEquals(Files.readAllBytes(snapshot.toPath()), Files.readAllBytes(converted.toPath()));
+	}
+	
+	@Test
+	public void testSourceFiles() throws IOException {
+		
+		SnapshotReader reader = new SnapshotReader(Snapshots.convert(this.report, null));
+		assertEquals(this.sourceFiles.size(), reader.size());
+		assertEquals(SnapshotsTest.SERVICE_JOB_ID, reader.getServiceJobId());
+		
+		// THE SNAPSHOT IS READ IN REVERSE ORDER TO MAKE SURE THAT EVERY ENTRY IS FOUND BY THE OFFSET TABLE ALONE
+		for(int index = reader.size() - 1; index >= 0; index--) {
+			
+			SourceFileReport expected = this.sourceFiles.get(index);
+			SourceFileReport actual = reader.get(index);
+			assertEquals(expected.getName(), actual.getName());
+			assertEquals(expected.getSourceDigest(), actual.getSourceDigest());
+			assertEquals(expected.getLineCount(), actual.getLineCount());
+			assertArrayEquals(expected.getName(), expected.getLineNumbers(), actual.getLineNumbers());
+			assertArrayEquals(expected.getName(), expected.getHits(), actual.getHits());
+			assertEquals(expected.getCoveredLineCount(), actual.getCoveredLineCount());
+			assertEquals(expected.getMissedLineCount(), actual.getMissedLineCount());
+		}
+	}
+	
+	@Test
+	public void testTrailer() throws IOException {
+		
+		File snapshot = Snapshots.convert(this.report, null);
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot.toPath()));
+		int size = buffer.limit();
+		int trailer = size - SnapshotsTest.TRAILER_SIZE;
+		long tableOffset = buffer.getLong(trailer);
+		
+		assertEquals(Snapshots.MAGIC, buffer.getInt(0));
+		assertEquals(Snapshots.VERSION, buffer.getInt(4));
+		assertEquals(SnapshotsTest.SERVICE_JOB_ID, buffer.getLong(trailer + 8));
+		assertEquals(this.sourceFiles.size(), buffer.getInt(trailer + 16));
+		assertEquals(Snapshots.MAGIC, buffer.getInt(size - 4));
+		assertEquals(trailer, tableOffset + this.sourceFiles.size() * 8L);
+		
+		// THE FIRST ENTRY FOLLOWS THE HEADER AND EVERY OTHER ENTRY FOLLOWS THE ONE BEFORE
+		long previous = 0;
+		
+		for(int index = 0; index < this.sourceFiles.size(); index++) {
+			
+			long offset = buffer.getLong((int)tableOffset + index * 8);
+			assertTrue(index == 0 ? offset == 8 : offset > previous && offset < tableOffset);
+			previous = offset;
+		}
+	}
+	
+	@Test
+	public void testTruncatedSnapshot() throws IOException {
+		
+		File snapshot = Snapshots.convert(this.report, null);
+		byte[] bytes = Files.readAllBytes(snapshot.toPath());
+		Files.write(snapshot.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+		
+		try {
+			
+			new SnapshotReader(snapshot);
+			fail("A truncated snapshot was accepted");
+			
+		} catch(IOException exception) {
+			
+			assertEquals("coveralls.bin is not a complete snapshot", exception.getMessage());
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2018 Ralph Niemitz
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.ralleytn.software.cofftool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP server for tests that answers with a fixed sequence of responses and records every request it received.
+ * @author Ralph Niemitz/RalleYTN(ralph.niemitz@gmx.de)
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class StubServer implements AutoCloseable {
+
+	/**
+	 * Status code of a response that drops the connection after the body of the request was read.
+	 * @since 1.2.0
+	 */
+	public static final int DROP = -1;
+	
+	private HttpServer server;
+	private ConcurrentLinkedQueue<Response> responses = new ConcurrentLinkedQueue<>();
+	private List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+	
+	private static final class Response {
+		
+		private int status;
+		private String retryAfter;
+		
+		private Response(int status, String retryAfter) {
+			
+			this.status = status;
+			this.retryAfter = retryAfter;
+		}
+	}
+	
+	/**
+	 * A request that was received by the server.
+	 * @since 1.2.0
+	 */
+	public static final class Request {
+		
+		private String method;
+		private Headers headers;
+		private byte[] body;
+		
+		private Request(String method, Headers headers, byte[] body) {
+			
+			this.method = method;
+			this.headers = headers;
+			this.body = body;
+		}
+		
+		/**
+		 * @return the request method
+		 * @since 1.2.0
+		 */
+		public String getMethod() {
+			
+			return this.method;
+		}
+		
+		/**
+		 * @param name the name of the header
+		 * @return the first value of the header or {@code null} if it was not sent
+		 * @since 1.2.0
+		 */
+		public String getHeader(String name) {
+			
+			return this.headers.getFirst(name);
+		}
+		
+		/**
+		 * @return the complete body of the request
+		 * @since 1.2.0
+		 */
+		public byte[] getBody() {
+			
+			return this.body;
+		}
+	}
+	
+	/**
+	 * Starts the server on a free port of the loopback interface.
+	 * @throws IOException if the server could not be started
+	 * @since 1.2.0
+	 */
+	public StubServer() throws IOException {
+		
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.createContext("/", this::handle);
+		this.server.start();
+	}
+	
+	/**
+	 * Adds a response to the sequence. When the sequence is used up, every further request is answered with {@code 200}.
+	 * @param status the status code or {@linkplain #DROP}
+	 * @param retryAfter the value of the {@code Retry-After} header or {@code null} if the header should not be sent
+	 * @return this server
+	 * @since 1.2.0
+	 */
+	public StubServer respond(int status, String retryAfter) {
+		
+		this.responses.add(new Response(status, retryAfter));
+		return this;
+	}
+	
+	/**
+	 * @return the URL under which the server can be reached
+	 * @since 1.2.0
+	 */
+	public String getURL() {
+		
+		return "http://127.0.0.1:" + this.server.getAddress().getPort() + "/";
+	}
+	
+	/**
+	 * @return the requests that were received so far in the order in which they arrived
+	 * @since 1.2.0
+	 */
+	public List<Request> getRequests() {
+		
+		synchronized(this.requests) {
+			
+			return new ArrayList<>(this.requests);
+		}
+	}
+	
+	@Override
+	public void close() {
+		
+		this.server.stop(0);
+	}
+	
+	private void handle(HttpExchange exchange) throws IOException {
+		
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		
+		try(InputStream in = exchange.getRequestBody()) {
+			
+			in.transferTo(body);
+		}
+		
+		this.requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestHeaders(), body.toByteArray()));
+		Response next = this.responses.poll();
+		
+		if(next == null) {
+			
+			next = new Response(200, null);
+		}
+		
+		if(next.status == StubServer.DROP) {
+			
+			// THE SERVER CLOSES THE CONNECTION IF THE HANDLER FAILS, SO THE CLIENT NEVER SEES A RESPONSE
+			throw new IOException("Connection dropped");
+		}
+		
+		if(next.retryAfter != null) {
+			
+			exchange.getResponseHeaders().set("Retry-After", next.retryAfter);
+		}
+		
+		byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(next.status, response.length);
+		
+		try(OutputStream out = exchange.getResponseBody()) {
+			
+			out.write(response);
+		}
+	}
+}